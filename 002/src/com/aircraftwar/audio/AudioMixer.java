@@ -0,0 +1,435 @@
+package com.aircraftwar.audio;
+
+import javax.sound.sampled.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 软件混音器：音效解码一次缓存为 PCM，所有正在播放的声音（voice）在单个混音线程里叠加，
+ * 写入一条常驻的 SourceDataLine。播放音效只是占用一个空闲 voice，不开新线程、不打开新的 Line。
+ *
+ * 输出格式固定为 44.1kHz / 16bit / 立体声；源文件的采样率与声道数在解码时统一转换。
+ *
+ * 背景音乐以 {@link BgmStream} 流式混入：switchBgm() 只把切换命令放进队列，
+ * 混音线程在下一个缓冲开始时取出，新旧曲目按交叉淡入淡出过渡。
+ */
+public class AudioMixer {
+    public static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final int FRAME_BYTES = 2 * CHANNELS;
+    private static final AudioFormat OUTPUT_FORMAT =
+            new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, SAMPLE_RATE, 16, CHANNELS, FRAME_BYTES, SAMPLE_RATE, false);
+
+    // 每次混音的帧数（约 5.8ms）与声卡缓冲（约 23ms），两者共同决定触发到出声的延迟
+    static final int MIX_FRAMES = 256;
+    private static final int LINE_BUFFER_FRAMES = 1024;
+
+    public static final int DEFAULT_MAX_VOICES = 16;
+
+    // 已解码的音效：id -> 交错立体声 PCM
+    private final Map<String, short[]> bank = new ConcurrentHashMap<>();
+
+    // 复音策略：id -> 策略（未设置的 id 用 DEFAULT_POLICY）
+    private final Map<String, SoundPolicy> policies = new ConcurrentHashMap<>();
+    private static final SoundPolicy DEFAULT_POLICY = new SoundPolicy(Integer.MAX_VALUE, 0, 0L);
+
+    // voice 表（受 voices 锁保护；混音线程每个缓冲只持锁一次）
+    private final Voice[] voices;
+
+    // 混音缓冲（只由混音线程使用）
+    private final int[] accum = new int[MIX_FRAMES * CHANNELS];
+    private final byte[] out = new byte[MIX_FRAMES * FRAME_BYTES];
+
+    // 背景音乐：切换命令队列（任意线程写入）与当前/淡出中的曲目（只由混音线程访问）
+    private static final class BgmSwitch {
+        final BgmStream stream; // null 表示淡出后静音
+        final int fadeFrames;
+
+        BgmSwitch(BgmStream stream, int fadeFrames) {
+            this.stream = stream;
+            this.fadeFrames = fadeFrames;
+        }
+    }
+
+    private final Queue<BgmSwitch> bgmCommands = new ConcurrentLinkedQueue<>();
+    private BgmStream bgmCurrent;
+    private BgmStream bgmOutgoing;
+    private int fadeFrames;
+    private int fadeDone;
+    private float outgoingStartGain = 1.0f; // 淡出轨开始淡出时的音量（切换发生在淡入途中时小于 1）
+    private volatile float bgmGain = 1.0f;
+
+    private SourceDataLine line;
+    private Thread mixThread;
+    private volatile boolean running;
+
+    // 触发 → 出声延迟统计（微秒，受 latencyLock 保护）
+    private final Object latencyLock = new Object();
+    private volatile long lastLatencyMicros;
+    private volatile long maxLatencyMicros;
+    private long latencySumMicros;
+    private long latencySamples;
+
+    // 复音统计（受 voices 锁保护）
+    private int droppedTriggers;   // 没有可用 voice（且优先级不足以抢占）
+    private int rateLimitedTriggers; // 触发间隔过短被忽略
+    private int stolenVoices;      // 被新触发抢占的 voice
+
+    /**
+     * 单个音效的复音策略
+     */
+    public static final class SoundPolicy {
+        final int maxVoices;        // 同一音效同时发声的上限（达到上限时替换该音效最老的 voice）
+        final int priority;         // 全部 voice 占满时，只能抢占优先级不高于自己的 voice
+        final long minIntervalNanos; // 两次触发的最小间隔
+        long lastTriggerNanos = Long.MIN_VALUE / 2; // 受 voices 锁保护
+
+        public SoundPolicy(int maxVoices, int priority, long minIntervalMillis) {
+            this.maxVoices = Math.max(1, maxVoices);
+            this.priority = priority;
+            this.minIntervalNanos = Math.max(0L, minIntervalMillis) * 1_000_000L;
+        }
+    }
+
+    private static final class Voice {
+        String id;
+        int priority;
+        short[] data;
+        int position; // 下标（交错样本）
+        float gain;
+        long triggerNanos;
+        boolean active;
+        boolean started; // 是否已经混入过输出（用于延迟统计）
+    }
+
+    public AudioMixer(int maxVoices) {
+        voices = new Voice[Math.max(1, maxVoices)];
+        for (int i = 0; i < voices.length; i++) voices[i] = new Voice();
+    }
+
+    /**
+     * 打开输出线路并启动混音线程；没有可用声卡时返回 false（之后 play() 不出声）
+     */
+    public synchronized boolean start() {
+        if (running) return true;
+        try {
+            line = AudioSystem.getSourceDataLine(OUTPUT_FORMAT);
+            line.open(OUTPUT_FORMAT, LINE_BUFFER_FRAMES * FRAME_BYTES);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("[AudioMixer] 无法打开音频输出：" + e.getMessage());
+            line = null;
+            return false;
+        }
+        running = true;
+        mixThread = new Thread(this::runMixer, "audio-mixer");
+        mixThread.setDaemon(true);
+        mixThread.setPriority(Thread.MAX_PRIORITY);
+        mixThread.start();
+        return true;
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (mixThread != null) {
+            try {
+                mixThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mixThread = null;
+        }
+        if (line != null) {
+            line.stop();
+            line.close();
+            line = null;
+        }
+        // 混音线程已停：释放仍在发声的 voice，重新 start() 后从空闲状态开始
+        synchronized (voices) {
+            for (Voice v : voices) {
+                v.active = false;
+                v.data = null;
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 解码并缓存一个音效（同一 id 只解码一次）
+     */
+    public void preload(String id, File file) throws IOException, UnsupportedAudioFileException {
+        if (bank.containsKey(id)) return;
+        bank.put(id, decode(file));
+    }
+
+    public boolean isLoaded(String id) {
+        return bank.containsKey(id);
+    }
+
+    /**
+     * 设置某个音效的复音策略
+     */
+    public void setPolicy(String id, SoundPolicy policy) {
+        if (policy == null) policies.remove(id);
+        else policies.put(id, policy);
+    }
+
+    /**
+     * 触发一个已缓存的音效：
+     * 1. 距上次触发不足最小间隔 → 忽略；
+     * 2. 该音效已达上限 → 替换它自己最老的 voice；
+     * 3. 有空闲 voice → 占用；
+     * 4. 全部占满 → 抢占优先级最低（同优先级取最老）的 voice，但不抢占优先级更高的。
+     * 混音线程未运行（start() 失败或尚未完成）时直接返回 false：没有线程释放 voice，
+     * 占用后会一直不归还，之后的抢占/丢弃统计也就失真。
+     * @return 是否开始发声
+     */
+    public boolean play(String id, float gain) {
+        if (!running) return false;
+        short[] data = bank.get(id);
+        if (data == null || data.length == 0) return false;
+        SoundPolicy policy = policies.getOrDefault(id, DEFAULT_POLICY);
+        long now = System.nanoTime();
+        synchronized (voices) {
+            if (now - policy.lastTriggerNanos < policy.minIntervalNanos) {
+                rateLimitedTriggers++;
+                return false;
+            }
+
+            Voice free = null;
+            Voice oldestSame = null;
+            Voice victim = null;
+            int sameCount = 0;
+            for (Voice v : voices) {
+                if (!v.active) {
+                    if (free == null) free = v;
+                    continue;
+                }
+                if (v.id.equals(id)) {
+                    sameCount++;
+                    if (oldestSame == null || v.triggerNanos < oldestSame.triggerNanos) oldestSame = v;
+                }
+                if (victim == null || v.priority < victim.priority
+                        || (v.priority == victim.priority && v.triggerNanos < victim.triggerNanos)) {
+                    victim = v;
+                }
+            }
+
+            Voice target;
+            if (sameCount >= policy.maxVoices) {
+                target = oldestSame;
+                stolenVoices++;
+            } else if (free != null) {
+                target = free;
+            } else if (victim != null && victim.priority <= policy.priority) {
+                target = victim;
+                stolenVoices++;
+            } else {
+                droppedTriggers++;
+                return false;
+            }
+
+            policy.lastTriggerNanos = now;
+            target.id = id;
+            target.priority = policy.priority;
+            target.data = data;
+            target.position = 0;
+            target.gain = Math.max(0f, gain);
+            target.triggerNanos = now;
+            target.active = true;
+            target.started = false;
+            return true;
+        }
+    }
+
+    /**
+     * 切换背景音乐（线程安全，立即返回）：当前曲目淡出、新曲目淡入；stream 为 null 表示淡出到静音
+     */
+    public void switchBgm(BgmStream stream, int fadeMillis) {
+        int frames = (int) (Math.max(0, fadeMillis) * SAMPLE_RATE / 1000f);
+        if (!running) bgmCommands.clear(); // 没有混音线程消费时只保留最新一条
+        bgmCommands.add(new BgmSwitch(stream, frames));
+    }
+
+    public void setBgmGain(float gain) {
+        this.bgmGain = Math.max(0f, gain);
+    }
+
+    /** 当前正在播放的 voice 数 */
+    public int getActiveVoices() {
+        synchronized (voices) {
+            int n = 0;
+            for (Voice v : voices) if (v.active) n++;
+            return n;
+        }
+    }
+
+    public int getDroppedTriggers() {
+        synchronized (voices) {
+            return droppedTriggers;
+        }
+    }
+
+    public int getRateLimitedTriggers() {
+        synchronized (voices) {
+            return rateLimitedTriggers;
+        }
+    }
+
+    public int getStolenVoices() {
+        synchronized (voices) {
+            return stolenVoices;
+        }
+    }
+
+    // ===== 延迟统计：从 play() 到该声音第一个样本从声卡输出的估计时间 =====
+    public long getLastLatencyMicros() { return lastLatencyMicros; }
+    public long getMaxLatencyMicros() { return maxLatencyMicros; }
+
+    public long getAverageLatencyMicros() {
+        synchronized (latencyLock) {
+            return latencySamples == 0 ? 0 : latencySumMicros / latencySamples;
+        }
+    }
+
+    private void runMixer() {
+        SourceDataLine target = line;
+        while (running) {
+            // 声卡中尚未播放的帧数：本次混出的数据要排在它们后面才会被听到
+            int queuedFrames = (target.getBufferSize() - target.available()) / FRAME_BYTES;
+            mix(out, queuedFrames);
+            target.write(out, 0, out.length); // 缓冲满时阻塞，节奏由声卡驱动
+        }
+    }
+
+    /**
+     * 混出 MIX_FRAMES 帧到 dest（16bit 小端交错立体声）。
+     * @param queuedFrames 输出线路中尚未播放的帧数，用于估计延迟
+     */
+    void mix(byte[] dest, int queuedFrames) {
+        java.util.Arrays.fill(accum, 0);
+        mixBgm();
+        long now = System.nanoTime();
+        long outputDelayNanos = (long) (queuedFrames * 1_000_000_000L / SAMPLE_RATE);
+        synchronized (voices) {
+            for (Voice v : voices) {
+                if (!v.active) continue;
+                if (!v.started) {
+                    v.started = true;
+                    recordLatency((now - v.triggerNanos + outputDelayNanos) / 1000L);
+                }
+                short[] data = v.data;
+                int n = Math.min(accum.length, data.length - v.position);
+                float gain = v.gain;
+                int p = v.position;
+                for (int i = 0; i < n; i++) {
+                    accum[i] += (int) (data[p + i] * gain);
+                }
+                v.position = p + n;
+                if (v.position >= data.length) {
+                    v.active = false;
+                    v.data = null;
+                    v.id = null;
+                }
+            }
+        }
+        for (int i = 0, b = 0; i < accum.length; i++, b += 2) {
+            int s = accum[i];
+            if (s > Short.MAX_VALUE) s = Short.MAX_VALUE;
+            else if (s < Short.MIN_VALUE) s = Short.MIN_VALUE;
+            dest[b] = (byte) s;
+            dest[b + 1] = (byte) (s >> 8);
+        }
+    }
+
+    // 背景音乐（混音线程）：应用最新的切换命令后混入当前曲目与淡出中的曲目
+    private void mixBgm() {
+        BgmSwitch cmd;
+        while ((cmd = bgmCommands.poll()) != null) {
+            // 连续切换时只保留一条淡出轨：正在淡出的直接停掉；
+            // 当前曲目若还在淡入，从它此刻的音量开始淡出，避免音量跳回满值
+            outgoingStartGain = (fadeDone < fadeFrames) ? (float) fadeDone / fadeFrames : 1.0f;
+            bgmOutgoing = bgmCurrent;
+            bgmCurrent = cmd.stream;
+            fadeFrames = cmd.fadeFrames;
+            fadeDone = 0;
+            if (fadeFrames == 0) bgmOutgoing = null;
+        }
+
+        float gain = bgmGain;
+        if (fadeDone < fadeFrames) {
+            int n = MIX_FRAMES;
+            float from = (float) fadeDone / fadeFrames;
+            fadeDone = Math.min(fadeFrames, fadeDone + n);
+            float to = (float) fadeDone / fadeFrames;
+            if (bgmCurrent != null) bgmCurrent.mixInto(accum, n, from * gain, to * gain);
+            if (bgmOutgoing != null) {
+                float outGain = outgoingStartGain * gain;
+                bgmOutgoing.mixInto(accum, n, (1f - from) * outGain, (1f - to) * outGain);
+            }
+            if (fadeDone >= fadeFrames) bgmOutgoing = null;
+        } else if (bgmCurrent != null) {
+            bgmCurrent.mixInto(accum, MIX_FRAMES, gain, gain);
+        }
+        if (bgmCurrent != null && bgmCurrent.isFinished()) bgmCurrent = null;
+    }
+
+    private void recordLatency(long micros) {
+        synchronized (latencyLock) {
+            lastLatencyMicros = micros;
+            if (micros > maxLatencyMicros) maxLatencyMicros = micros;
+            latencySumMicros += micros;
+            latencySamples++;
+        }
+    }
+
+    // ===== 解码：任意 PCM/可转换格式 -> 44.1kHz 16bit 交错立体声 =====
+
+    static short[] decode(File file) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file)) {
+            AudioFormat src = source.getFormat();
+            int channels = Math.max(1, src.getChannels());
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, src.getSampleRate(), 16,
+                    channels, 2 * channels, src.getSampleRate(), false);
+            byte[] bytes;
+            try (AudioInputStream converted = AudioSystem.getAudioInputStream(pcm, source)) {
+                bytes = converted.readAllBytes();
+            }
+            int frames = bytes.length / (2 * channels);
+            short[][] byChannel = new short[channels][frames];
+            for (int f = 0, b = 0; f < frames; f++) {
+                for (int c = 0; c < channels; c++, b += 2) {
+                    byChannel[c][f] = (short) ((bytes[b] & 0xFF) | (bytes[b + 1] << 8));
+                }
+            }
+            return toStereo(byChannel, src.getSampleRate());
+        }
+    }
+
+    // 线性插值重采样到 SAMPLE_RATE，单声道复制到左右声道，多声道只取前两个
+    private static short[] toStereo(short[][] byChannel, float srcRate) {
+        int srcFrames = byChannel[0].length;
+        double step = srcRate / SAMPLE_RATE;
+        int frames = (int) Math.floor((srcFrames - 1) / step) + 1;
+        if (srcFrames == 0) frames = 0;
+        short[] left = byChannel[0];
+        short[] right = byChannel.length > 1 ? byChannel[1] : byChannel[0];
+        short[] stereo = new short[frames * CHANNELS];
+        for (int f = 0; f < frames; f++) {
+            double pos = f * step;
+            int i = (int) pos;
+            double frac = pos - i;
+            int j = Math.min(i + 1, srcFrames - 1);
+            stereo[f * 2] = (short) Math.round(left[i] + (left[j] - left[i]) * frac);
+            stereo[f * 2 + 1] = (short) Math.round(right[i] + (right[j] - right[i]) * frac);
+        }
+        return stereo;
+    }
+}
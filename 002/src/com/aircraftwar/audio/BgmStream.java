@@ -0,0 +1,131 @@
+package com.aircraftwar.audio;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 背景音乐流：直接从内存映射的 WAV 文件读取 PCM，边播边重采样到混音器的输出格式，
+ * 不需要把整首曲子解码进内存。只支持未压缩 PCM（8bit 无符号 / 16bit 有符号），其他格式由调用方先解码。
+ *
+ * 只由混音线程读取（mixInto），打开/解析在 BGM 线程完成。
+ */
+public class BgmStream {
+    private final String id;
+    private final ByteBuffer data; // 只包含 data 块，小端
+    private final int channels;
+    private final int bytesPerSample;
+    private final int frameCount;
+    private final double step; // 每个输出帧前进的源帧数
+    private final boolean loop;
+
+    private double position;
+    private boolean finished;
+
+    private BgmStream(String id, ByteBuffer data, int channels, int bits, float sampleRate, boolean loop) {
+        this.id = id;
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        this.channels = channels;
+        this.bytesPerSample = bits / 8;
+        this.frameCount = data.remaining() / (channels * bytesPerSample);
+        this.step = sampleRate / AudioMixer.SAMPLE_RATE;
+        this.loop = loop;
+        this.finished = frameCount == 0;
+    }
+
+    /**
+     * 映射并解析 WAV 文件（RIFF / fmt / data 块）。块长度越界、fmt 块不完整等损坏文件
+     * 一律抛出 UnsupportedAudioFileException（调用方会退回整段解码），不会抛出越界异常
+     */
+    public static BgmStream open(File file, boolean loop) throws IOException, UnsupportedAudioFileException {
+        ByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // 关闭通道后映射仍然有效
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (map.remaining() < 12 || map.getInt(0) != 0x46464952 /* RIFF */ || map.getInt(8) != 0x45564157 /* WAVE */) {
+            throw new UnsupportedAudioFileException("不是 WAV 文件：" + file.getName());
+        }
+
+        int channels = 0, bits = 0, format = 0;
+        float rate = 0f;
+        int pos = 12;
+        while (pos + 8 <= map.limit()) {
+            int chunkId = map.getInt(pos);
+            int chunkSize = map.getInt(pos + 4);
+            int body = pos + 8;
+            if (chunkSize < 0 || (long) body + chunkSize > map.limit()) {
+                throw new UnsupportedAudioFileException("WAV 块长度越界：" + file.getName());
+            }
+            if (chunkId == 0x20746D66 /* "fmt " */) {
+                if (chunkSize < 16) throw new UnsupportedAudioFileException("WAV fmt 块不完整：" + file.getName());
+                format = map.getShort(body) & 0xFFFF;
+                channels = map.getShort(body + 2);
+                rate = map.getInt(body + 4);
+                bits = map.getShort(body + 14);
+                if (format == 0xFFFE && chunkSize >= 26) format = map.getShort(body + 24) & 0xFFFF; // WAVE_FORMAT_EXTENSIBLE
+            } else if (chunkId == 0x61746164 /* "data" */) {
+                if (format != 1 || (bits != 8 && bits != 16) || channels < 1 || rate <= 0f) {
+                    throw new UnsupportedAudioFileException("不支持流式播放的格式：format=" + format + " bits=" + bits);
+                }
+                ByteBuffer slice = map.duplicate();
+                slice.position(body).limit(body + chunkSize);
+                return new BgmStream(file.getPath(), slice.slice(), channels, bits, rate, loop);
+            }
+            pos = body + chunkSize + (chunkSize & 1); // 块按 2 字节对齐
+        }
+        throw new UnsupportedAudioFileException("WAV 缺少 data 块：" + file.getName());
+    }
+
+    /**
+     * 已解码好的 PCM（44.1kHz 16bit 交错立体声）包装成流，用于不支持映射的格式
+     */
+    public static BgmStream fromPcm(String id, short[] stereo, boolean loop) {
+        ByteBuffer buf = ByteBuffer.allocate(stereo.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        buf.asShortBuffer().put(stereo);
+        return new BgmStream(id, buf, 2, 16, AudioMixer.SAMPLE_RATE, loop);
+    }
+
+    public String getId() { return id; }
+
+    public boolean isFinished() { return finished; }
+
+    /**
+     * 把 frames 帧叠加到 accum（交错立体声），增益从 gainFrom 线性过渡到 gainTo
+     */
+    void mixInto(int[] accum, int frames, float gainFrom, float gainTo) {
+        if (finished) return;
+        float gainStep = (gainTo - gainFrom) / frames;
+        float gain = gainFrom;
+        for (int f = 0; f < frames; f++, gain += gainStep) {
+            int i = (int) position;
+            double frac = position - i;
+            int j = i + 1;
+            if (j >= frameCount) j = loop ? 0 : i;
+            int left0 = sample(i, 0), left1 = sample(j, 0);
+            int right0 = channels > 1 ? sample(i, 1) : left0;
+            int right1 = channels > 1 ? sample(j, 1) : left1;
+            accum[f * 2] += (int) ((left0 + (left1 - left0) * frac) * gain);
+            accum[f * 2 + 1] += (int) ((right0 + (right1 - right0) * frac) * gain);
+
+            position += step;
+            if (position >= frameCount) {
+                if (!loop) {
+                    finished = true;
+                    return;
+                }
+                position -= frameCount;
+            }
+        }
+    }
+
+    private int sample(int frame, int channel) {
+        int offset = (frame * channels + channel) * bytesPerSample;
+        if (bytesPerSample == 2) return data.getShort(offset);
+        return ((data.get(offset) & 0xFF) - 128) << 8;
+    }
+}
@@ -1,82 +1,161 @@
 package com.aircraftwar.audio;
 
-import javax.sound.sampled.*;
+import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
- * 简单的声音管理器：缓存/播放短音与 BGM（最小实现，线程安全的播放线程池）
+ * 简单的声音管理器：短音效与 BGM 都走软件混音器（单条常驻输出线路）；
+ * 音效预解码为 PCM，BGM 从内存映射文件流式读取并交叉淡入淡出
  */
 public class SoundManager {
     private static final SoundManager INSTANCE = new SoundManager();
-    private ExecutorService soundPool = Executors.newCachedThreadPool();
-    private Clip bgmClip;
+    private final AudioMixer mixer = new AudioMixer(AudioMixer.DEFAULT_MAX_VOICES);
+    // 解码线程：首次播放未预加载的音效时在这里解码，游戏线程不等待磁盘
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "audio-loader");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
 
-    private SoundManager() {}
+    // BGM 命令线程：打开/映射文件在这里完成，调用方（游戏线程）从不等待音频 I/O
+    private static final int BGM_CROSSFADE_MS = 800;
+    private static final int BGM_FADE_OUT_MS = 400;
+    private final ExecutorService bgmWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "audio-bgm");
+        t.setDaemon(true);
+        return t;
+    });
+    private String currentBgm; // 只由 BGM 线程访问
+
+    private SoundManager() {
+        // 打开声卡可能耗时上百毫秒，放到 BGM 线程，调用方（EDT/游戏线程）不等待
+        bgmWorker.submit(mixer::start);
+    }
 
     public static SoundManager getInstance() { return INSTANCE; }
 
+    public AudioMixer getMixer() { return mixer; }
+
+    /**
+     * 后台预解码音效（以文件路径为 id），之后 playSound 直接混音
+     */
+    public void preloadSound(final String filePath) {
+        load(filePath, -1f);
+    }
+
+    /**
+     * 设置音效的复音策略（以文件路径为 id）
+     * @param maxVoices         同一音效同时发声上限
+     * @param priority          声部占满时的抢占优先级（高者可抢占低者）
+     * @param minIntervalMillis 最小触发间隔，0 表示不限
+     */
+    public void setSoundPolicy(String filePath, int maxVoices, int priority, long minIntervalMillis) {
+        mixer.setPolicy(filePath, new AudioMixer.SoundPolicy(maxVoices, priority, minIntervalMillis));
+    }
+
+    // ===== 复音统计 =====
+    public int getDroppedSounds() { return mixer.getDroppedTriggers(); }
+    public int getRateLimitedSounds() { return mixer.getRateLimitedTriggers(); }
+    public int getStolenVoices() { return mixer.getStolenVoices(); }
+
+    /**
+     * 在调用线程同步解码音效（供启动预加载线程使用）
+     * @return 是否已可播放
+     */
+    public boolean loadSoundNow(String filePath) {
+        if (mixer.isLoaded(filePath)) return true;
+        File soundFile = new File(filePath);
+        if (!soundFile.exists()) {
+            System.out.println("Sound file not found: " + filePath);
+            failed.add(filePath);
+            return false;
+        }
+        try {
+            mixer.preload(filePath, soundFile);
+            return true;
+        } catch (UnsupportedAudioFileException | IOException e) {
+            System.out.println("Failed to load sound: " + filePath + " -> " + e.getMessage());
+            failed.add(filePath);
+            return false;
+        }
+    }
+
     public void playSound(final String filePath, final float volume) {
-        soundPool.submit(() -> {
+        if (mixer.play(filePath, volume)) return;
+        // 尚未解码：交给解码线程，完成后补播
+        if (!mixer.isLoaded(filePath)) load(filePath, volume);
+    }
+
+    // volume < 0 表示只加载不播放
+    private void load(final String filePath, final float playVolume) {
+        if (mixer.isLoaded(filePath) || failed.contains(filePath) || !loading.add(filePath)) return;
+        loader.submit(() -> {
             try {
                 File soundFile = new File(filePath);
                 if (!soundFile.exists()) {
                     System.out.println("Sound file not found: " + filePath);
+                    failed.add(filePath);
                     return;
                 }
-                AudioInputStream ais = AudioSystem.getAudioInputStream(soundFile);
-                Clip clip = AudioSystem.getClip();
-                clip.open(ais);
-                setVolume(clip, volume);
-                clip.start();
-                clip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP) {
-                        clip.close();
-                        try { ais.close(); } catch (IOException ignored) {}
-                    }
-                });
-            } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-                System.out.println("Failed to play sound: " + filePath + " -> " + e.getMessage());
+                mixer.preload(filePath, soundFile);
+                if (playVolume >= 0f) mixer.play(filePath, playVolume);
+            } catch (UnsupportedAudioFileException | IOException e) {
+                System.out.println("Failed to load sound: " + filePath + " -> " + e.getMessage());
+                failed.add(filePath);
+            } finally {
+                loading.remove(filePath);
             }
         });
     }
 
-    public synchronized void playBgm(final String filePath, final boolean loop) {
-        stopBgm();
-        try {
-            File f = new File(filePath);
-            if (!f.exists()) {
-                System.out.println("BGM file not found: " + filePath);
-                return;
-            }
-            AudioInputStream ais = AudioSystem.getAudioInputStream(f);
-            bgmClip = AudioSystem.getClip();
-            bgmClip.open(ais);
-            if (loop) bgmClip.loop(Clip.LOOP_CONTINUOUSLY);
-            bgmClip.start();
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
-            System.out.println("Failed to play BGM: " + e.getMessage());
-        }
+    /**
+     * 切换背景音乐（立即返回）：文件在 BGM 线程映射/解析，混音线程交叉淡入淡出；
+     * 请求的曲目已在播放时不重新开始
+     */
+    public void playBgm(final String filePath, final boolean loop) {
+        bgmWorker.submit(() -> {
+            if (filePath.equals(currentBgm)) return;
+            BgmStream stream = openBgm(filePath, loop);
+            if (stream == null) return;
+            currentBgm = filePath;
+            mixer.switchBgm(stream, BGM_CROSSFADE_MS);
+        });
     }
 
-    public synchronized void stopBgm() {
-        if (bgmClip != null && bgmClip.isRunning()) {
-            bgmClip.stop();
-            bgmClip.close();
-            bgmClip = null;
-        }
+    public void stopBgm() {
+        bgmWorker.submit(() -> {
+            if (currentBgm == null) return;
+            currentBgm = null;
+            mixer.switchBgm(null, BGM_FADE_OUT_MS);
+        });
     }
 
-    private void setVolume(Clip clip, float volume) {
+    // BGM 线程：优先内存映射流式播放，不支持的编码退回整段解码
+    private BgmStream openBgm(String filePath, boolean loop) {
+        File f = new File(filePath);
+        if (!f.exists()) {
+            System.out.println("BGM file not found: " + filePath);
+            return null;
+        }
         try {
-            if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                FloatControl gain = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-                float dB = (float) (20.0 * Math.log10(Math.max(0.0001, volume)));
-                gain.setValue(dB);
+            return BgmStream.open(f, loop);
+        } catch (UnsupportedAudioFileException e) {
+            try {
+                return BgmStream.fromPcm(filePath, AudioMixer.decode(f), loop);
+            } catch (UnsupportedAudioFileException | IOException | RuntimeException ex) {
+                System.out.println("Failed to play BGM: " + ex);
             }
-        } catch (Exception ignored) {}
+        } catch (IOException | RuntimeException e) {
+            // RuntimeException：文件在映射后被截断等意外情况，不能让它终止 BGM 线程的任务
+            System.out.println("Failed to play BGM: " + e);
+        }
+        return null;
     }
 }
-
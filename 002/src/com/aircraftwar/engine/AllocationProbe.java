@@ -0,0 +1,35 @@
+package com.aircraftwar.engine;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 线程分配字节数探针（HotSpot 的 com.sun.management.ThreadMXBean）：读取当前线程累计分配量，
+ * 前后相减即可得到一段代码的分配字节数。JVM 不支持时 isSupported() 为 false，读数恒为 -1。
+ */
+public final class AllocationProbe {
+    private static final com.sun.management.ThreadMXBean THREADS = resolve();
+
+    private AllocationProbe() {}
+
+    private static com.sun.management.ThreadMXBean resolve() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported()) return null;
+            if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /** 当前线程累计分配的字节数（不支持时返回 -1） */
+    public static long currentThreadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1L;
+    }
+}
@@ -0,0 +1,71 @@
+package com.aircraftwar.engine;
+
+import com.aircraftwar.entity.BulletStore;
+import com.aircraftwar.entity.DifficultyProfile;
+import com.aircraftwar.entity.EnemyAircraft;
+import com.aircraftwar.entity.EnemyMoveType;
+import com.aircraftwar.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 每 tick 碰撞检测（GameSimulation.checkCollisions）的吞吐与分配：重建空间哈希 + 玩家子弹对敌机查询。
+ * 用法：CollisionBenchRunner [--warmup=毫秒] [--time=毫秒]
+ * 子弹 100/400/1600（一半玩家子弹、一半敌方子弹）× 敌机 10/40/160。
+ * 敌机排在屏幕上部，子弹分布在下部，互不重叠：测的是占绝大多数 tick 的“无命中”路径，
+ * 每次调用后状态不变，结果稳定可比。玩家无敌，跳过对玩家的伤害结算。
+ */
+public class CollisionBenchRunner {
+    private static final int[] BULLETS = { 100, 400, 1600 };
+    private static final int[] ENEMIES = { 10, 40, 160 };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        MicroBench.configure(args);
+        MicroBench.muteConsole();
+
+        for (int enemies : ENEMIES) {
+            for (int bullets : BULLETS) {
+                GameSimulation simulation = new GameSimulation(new ManualClock());
+                simulation.setInvulnerable(true);
+                simulation.reset(DifficultyProfile.DifficultyKey.IMPOSSIBLE, MicroBench.SEED);
+                List<EnemyAircraft> enemyList = layout(simulation, enemies, bullets);
+                MicroBench.run("checkCollisions bullets=" + bullets + " enemies=" + enemies, 1, () -> {
+                    simulation.checkCollisions(enemyList);
+                    return simulation.getScore();
+                });
+            }
+        }
+    }
+
+    private static List<EnemyAircraft> layout(GameSimulation simulation, int enemies, int bullets) {
+        int width = GameConfig.SCREEN_WIDTH;
+        int columns = Math.max(1, width / 40);
+        List<EnemyAircraft> enemyList = new ArrayList<>();
+        for (int i = 0; i < enemies; i++) {
+            int x = (i % columns) * 40;
+            int y = 20 + (i / columns) * 40;
+            enemyList.add(new EnemyAircraft(width, GameConfig.SCREEN_HEIGHT, EnemyMoveType.HOVER, 1, x, y,
+                    DifficultyProfile.DifficultyKey.IMPOSSIBLE));
+        }
+        int bulletTop = 20 + ((enemies + columns - 1) / columns) * 40 + 60;
+
+        SplittableRandom random = new SplittableRandom(MicroBench.SEED);
+        BulletStore playerBullets = simulation.getPlayer().getBulletStore();
+        BulletStore enemyBullets = simulation.getCurrentWave().getEnemyProjectiles().getStore();
+        playerBullets.clear();
+        enemyBullets.clear();
+        for (int i = 0; i < bullets; i++) {
+            float x = random.nextInt(width - BulletStore.BULLET_SIZE);
+            float y = bulletTop + random.nextInt(Math.max(1, GameConfig.SCREEN_HEIGHT - bulletTop));
+            if ((i & 1) == 0) {
+                playerBullets.spawn(BulletStore.TYPE_PLAYER_BASIC, x, y, 0f, -8f, 1, 0);
+            } else {
+                enemyBullets.spawn(BulletStore.TYPE_ENEMY_BASIC, x, y, 0f, 4f, 1, 0);
+            }
+        }
+        return enemyList;
+    }
+}
@@ -0,0 +1,163 @@
+package com.aircraftwar.engine;
+
+import java.util.Arrays;
+
+/**
+ * 分阶段帧耗时统计：每个阶段一个固定大小的环形缓冲，保存最近 CAPACITY 次的耗时（纳秒），
+ * 可读出 p50/p95/p99/max，用于判断卡顿出在波次更新、碰撞、事件分发还是绘制。
+ *
+ * 用法：long t = profiler.begin(); ...; t = profiler.end(Phase.WAVE, t); ...
+ * 记录路径只有 System.nanoTime() 与数组写入，不分配内存。
+ * 每个阶段只由一个线程写入（TICK 及其子阶段、EVENTS 在模拟线程，RENDER 只在渲染线程，EDT 被动重绘不计时）；
+ * 读取方不加锁，读到的可能是正在写入的几个样本，统计用途可以接受。
+ */
+public final class FrameProfiler {
+    /** 计时阶段；frame 为 true 的是所在线程最外层的一帧，结束时顺带采样该线程累计分配量 */
+    public enum Phase {
+        TICK("tick", true),
+        WAVE("波次更新", false),
+        PLAYER("玩家/子弹", false),
+        COLLISION("碰撞检测", false),
+        EFFECTS("爆炸/波次切换", false),
+        EVENTS("事件分发", false),
+        RENDER("绘制", true);
+
+        private final String label;
+        private final boolean frame;
+
+        Phase(String label, boolean frame) {
+            this.label = label;
+            this.frame = frame;
+        }
+
+        public String getLabel() { return label; }
+        public boolean isFrame() { return frame; }
+    }
+
+    /** 每阶段保留的样本数（2 的幂；70Hz 模拟约 7 秒） */
+    public static final int CAPACITY = 512;
+    private static final int MASK = CAPACITY - 1;
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[][] samples = new long[PHASES.length][CAPACITY];
+    private final long[] written = new long[PHASES.length];
+    private final long[] allocatedBytes = new long[PHASES.length];
+
+    // 汇总用的排序缓冲：只由读取方（调试面板/渲染线程）使用
+    private final long[] sortScratch = new long[CAPACITY];
+
+    // 分配速率：读取方按时间间隔对累计分配量求差
+    private long rateSampleNanos;
+    private long rateSampleBytes = -1L;
+    private long allocationRate = -1L;
+
+    /** 阶段耗时汇总（由调用方复用同一个实例，读取不分配） */
+    public static final class Summary {
+        public int count;
+        public long p50;
+        public long p95;
+        public long p99;
+        public long max;
+    }
+
+    public long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束一个阶段并记录耗时，返回当前时刻，可直接作为下一阶段的起点
+     */
+    public long end(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        record(phase, now - startNanos);
+        if (phase.frame) {
+            allocatedBytes[phase.ordinal()] = AllocationProbe.currentThreadAllocatedBytes();
+        }
+        return now;
+    }
+
+    public void record(Phase phase, long nanos) {
+        int index = phase.ordinal();
+        long position = written[index];
+        samples[index][(int) (position & MASK)] = nanos;
+        written[index] = position + 1;
+    }
+
+    /** 最近一次的耗时（纳秒）；还没有样本时返回 0 */
+    public long last(Phase phase) {
+        int index = phase.ordinal();
+        long position = written[index];
+        return position == 0 ? 0L : samples[index][(int) ((position - 1) & MASK)];
+    }
+
+    /**
+     * 按时间顺序（旧 → 新）复制最近的样本到 out，返回复制的个数（最多 out.length 个）
+     */
+    public int copyRecent(Phase phase, long[] out) {
+        int index = phase.ordinal();
+        long position = written[index];
+        int count = (int) Math.min(Math.min(position, CAPACITY), out.length);
+        long first = position - count;
+        for (int i = 0; i < count; i++) {
+            out[i] = samples[index][(int) ((first + i) & MASK)];
+        }
+        return count;
+    }
+
+    /**
+     * 汇总最近 CAPACITY 个样本的分位数，写入 out；只应由一个读取线程调用
+     */
+    public Summary summarize(Phase phase, Summary out) {
+        int count = copyRecent(phase, sortScratch);
+        out.count = count;
+        if (count == 0) {
+            out.p50 = out.p95 = out.p99 = out.max = 0L;
+            return out;
+        }
+        Arrays.sort(sortScratch, 0, count);
+        out.p50 = sortScratch[percentileIndex(count, 50)];
+        out.p95 = sortScratch[percentileIndex(count, 95)];
+        out.p99 = sortScratch[percentileIndex(count, 99)];
+        out.max = sortScratch[count - 1];
+        return out;
+    }
+
+    private static int percentileIndex(int count, int percent) {
+        return Math.min(count - 1, (int) ((long) count * percent / 100));
+    }
+
+    /**
+     * 模拟线程 + 渲染线程累计分配的字节数（各取最近一次帧结束时的读数）；JVM 不支持时返回 -1
+     */
+    public long getAllocatedBytes() {
+        if (!AllocationProbe.isSupported()) return -1L;
+        long total = 0L;
+        for (Phase phase : PHASES) {
+            if (phase.frame && allocatedBytes[phase.ordinal()] > 0) total += allocatedBytes[phase.ordinal()];
+        }
+        return total;
+    }
+
+    /**
+     * 每秒分配字节数：两次采样至少间隔半秒才更新，期间返回上次的结果；
+     * 尚无结果或 JVM 不支持时返回 -1。只应由一个读取线程调用
+     */
+    public long sampleAllocationRate() {
+        long bytes = getAllocatedBytes();
+        if (bytes < 0) return -1L;
+        long now = System.nanoTime();
+        if (rateSampleBytes < 0) {
+            rateSampleBytes = bytes;
+            rateSampleNanos = now;
+        } else if (now - rateSampleNanos >= 500_000_000L) {
+            allocationRate = Math.max(0L, (long) ((bytes - rateSampleBytes) * 1e9 / (now - rateSampleNanos)));
+            rateSampleBytes = bytes;
+            rateSampleNanos = now;
+        }
+        return allocationRate;
+    }
+
+    public long getSampleCount(Phase phase) {
+        return written[phase.ordinal()];
+    }
+}
@@ -0,0 +1,16 @@
+package com.aircraftwar.engine;
+
+/**
+ * 游戏时钟：所有实体计时器（波次时长、小队生成/阶段、射击间隔、无敌、爆炸）统一从这里取时间，
+ * 以便无界面模拟可以快于真实时间推进，暂停时模拟时间也随之停止。
+ */
+@FunctionalInterface
+public interface GameClock {
+    /** 墙上时钟（兼容未注入时钟的旧构造） */
+    GameClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * 当前模拟时间（毫秒）。只保证差值有意义，不保证与墙上时间对齐。
+     */
+    long nowMillis();
+}
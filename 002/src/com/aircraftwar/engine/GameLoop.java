@@ -0,0 +1,142 @@
+package com.aircraftwar.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 游戏主循环：固定步长的模拟线程 + 按显示器刷新率节拍的渲染线程。
+ * 模拟与渲染共享 worldLock：每次 tick 在锁内完成，渲染方在锁内读取世界状态，
+ * 并根据距上一次 tick 的时间得到插值系数 alpha（0..1），用于平滑绘制。
+ */
+public class GameLoop {
+    /** 单次固定步长的模拟逻辑 */
+    public interface Simulation {
+        void tick();
+    }
+
+    /** 一帧渲染（alpha：当前时刻位于上一 tick 与下一 tick 之间的比例） */
+    public interface Renderer {
+        void render(double alpha);
+    }
+
+    // 一次唤醒最多追赶的 tick 数，避免长时间卡顿后陷入“越追越慢”
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final Object worldLock = new Object();
+    private final long tickNanos;
+    private final long frameNanos;
+    private final Simulation simulation;
+    private final Renderer renderer;
+
+    private volatile boolean running;
+    private volatile long lastTickNanos;
+    private Thread simulationThread;
+    private Thread renderThread;
+    private long lastRenderErrorNanos; // 仅渲染线程读写
+
+    /**
+     * @param ticksPerSecond 模拟频率（固定步长）
+     * @param framesPerSecond 渲染频率（通常为显示器刷新率）
+     */
+    public GameLoop(int ticksPerSecond, int framesPerSecond, Simulation simulation, Renderer renderer) {
+        this.tickNanos = 1_000_000_000L / Math.max(1, ticksPerSecond);
+        this.frameNanos = 1_000_000_000L / Math.max(1, framesPerSecond);
+        this.simulation = simulation;
+        this.renderer = renderer;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        lastTickNanos = System.nanoTime();
+
+        simulationThread = new Thread(this::runSimulation, "game-simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+
+        renderThread = new Thread(this::runRender, "game-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (simulationThread != null) simulationThread.join();
+            if (renderThread != null) renderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 世界状态锁：模拟 tick 在锁内执行；渲染或 EDT 上读写世界状态时也应持有该锁。
+     */
+    public Object getWorldLock() {
+        return worldLock;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 模拟线程：按固定步长推进，睡眠到下一个 tick 的时间点
+    private void runSimulation() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            int steps = 0;
+            while (now - nextTick >= 0 && steps < MAX_CATCH_UP_TICKS) {
+                synchronized (worldLock) {
+                    simulation.tick();
+                    lastTickNanos = nextTick;
+                }
+                nextTick += tickNanos;
+                steps++;
+            }
+            // 追赶上限：丢弃积压的时间，而不是一次性补跑
+            if (steps == MAX_CATCH_UP_TICKS && now - nextTick >= 0) {
+                nextTick = now + tickNanos;
+            }
+            parkUntil(nextTick);
+        }
+    }
+
+    // 渲染线程：每帧计算插值系数后交给 renderer，按刷新率节拍休眠
+    private void runRender() {
+        long nextFrame = System.nanoTime();
+        while (running) {
+            double alpha = (System.nanoTime() - lastTickNanos) / (double) tickNanos;
+            if (alpha < 0) alpha = 0;
+            if (alpha > 1) alpha = 1;
+
+            Interpolation.setAlpha(alpha);
+            try {
+                renderer.render(alpha);
+            } catch (RuntimeException e) {
+                // 单帧绘制失败不结束渲染线程：下一帧照常绘制；同一错误每秒最多打印一次，避免刷屏
+                long now = System.nanoTime();
+                if (lastRenderErrorNanos == 0L || now - lastRenderErrorNanos >= 1_000_000_000L) {
+                    lastRenderErrorNanos = now;
+                    System.out.println("[GameLoop] 渲染一帧失败，继续下一帧：" + e);
+                }
+            }
+
+            nextFrame += frameNanos;
+            long now = System.nanoTime();
+            // 渲染掉帧：从当前时刻重新对齐节拍
+            if (now - nextFrame > frameNanos) nextFrame = now;
+            parkUntil(nextFrame);
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.aircraftwar.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 一局游戏的随机数服务：由一个种子按固定顺序拆分出各子系统独立的随机流。
+ * 相同种子 + 相同输入（配合 ManualClock）得到完全相同的一局，可用于回放与回归测试。
+ *
+ * 每条流是无锁的 SplittableRandom，只能由使用它的那个线程访问：
+ * 玩法流（SPAWN/FORMATION/DIVE/SHOOTING）只在游戏线程使用，COSMETIC 只在绘制线程使用。
+ * 某个子系统多取或少取随机数不会影响其他流，所以纯视觉效果不会改变玩法结果。
+ */
+public final class GameRandom {
+
+    public enum Stream {
+        SPAWN,      // 波次：小队生成间隔、Bee 出场位置与间隔
+        FORMATION,  // 小队：编队/运动类型、入场位置、巡航阶段切换
+        DIVE,       // 俯冲：人数、目标、轨迹参数
+        SHOOTING,   // 敌机射击概率
+        COSMETIC    // 屏幕震动等纯视觉效果
+    }
+
+    private final long seed;
+    private final SplittableRandom[] streams = new SplittableRandom[Stream.values().length];
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        // 按枚举顺序拆分：只允许在末尾追加新流，否则旧种子对应的序列会改变
+        for (Stream s : Stream.values()) {
+            streams[s.ordinal()] = root.split();
+        }
+    }
+
+    /**
+     * 随机种子（兼容未注入随机服务的旧构造，以及每局不指定种子的情况）
+     */
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /** 未指定种子：每次得到不同的序列 */
+    public static GameRandom unseeded() {
+        return new GameRandom(newSeed());
+    }
+
+    public long getSeed() { return seed; }
+
+    public SplittableRandom stream(Stream stream) {
+        return streams[stream.ordinal()];
+    }
+}
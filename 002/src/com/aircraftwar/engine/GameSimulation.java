@@ -0,0 +1,546 @@
+package com.aircraftwar.engine;
+
+import com.aircraftwar.entity.BulletStore;
+import com.aircraftwar.entity.CollisionBox;
+import com.aircraftwar.entity.DifficultyProfile;
+import com.aircraftwar.entity.EnemyAircraft;
+import com.aircraftwar.entity.EnemyProjectilePool;
+import com.aircraftwar.entity.EnemySquad;
+import com.aircraftwar.entity.Explosion;
+import com.aircraftwar.entity.IBullet;
+import com.aircraftwar.entity.PlayerAircraft;
+import com.aircraftwar.entity.Wave;
+import com.aircraftwar.event.EventBus;
+import com.aircraftwar.event.events.FireEvent;
+import com.aircraftwar.event.events.GameOverEvent;
+import com.aircraftwar.event.events.ScoreChangedEvent;
+import com.aircraftwar.event.events.SoundEvent;
+import com.aircraftwar.event.events.WaveStartedEvent;
+import com.aircraftwar.upgrade.UpgradeManager;
+import com.aircraftwar.upgrade.UpgradeOption;
+import com.aircraftwar.util.GameConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 游戏模拟核心（无 Swing 依赖）：持有玩家、当前波次、爆炸效果与得分，按 tick 推进。
+ * GamePanel 只负责输入采样与渲染；无界面环境下可直接 step() 任意 tick 数做压力测试。
+ */
+public class GameSimulation {
+    // 模拟频率（所有速度参数按每秒 70 tick 调校）
+    public static final int TICK_RATE = 70;
+    public static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+
+    // 模拟时钟：所有实体计时器共用；ManualClock 时由 advanceTick()/step() 每 tick 推进
+    private final GameClock clock;
+    private final ManualClock stepClock;
+    // 本局随机数服务：reset 时按种子重建；COSMETIC 流由绘制线程读取，故 volatile
+    private volatile GameRandom random = GameRandom.unseeded();
+
+    // 游戏元素
+    private PlayerAircraft player;
+    private Wave currentWave;          // 当前波次（无尽递增）
+    private int currentWaveNumber = 1; // 当前波次编号
+    private final List<Explosion> explosions = new ArrayList<>();
+
+    // 游戏参数
+    private int score = 0;
+    private boolean gameOver = false;
+    private long tickCount = 0L;
+    private DifficultyProfile.DifficultyKey difficulty = DifficultyProfile.DifficultyKey.NEWBIE;
+
+    // 输入状态（每 tick 由外部采样写入）
+    private boolean upPressed;
+    private boolean downPressed;
+    private boolean leftPressed;
+    private boolean rightPressed;
+    private boolean shootPressed;
+
+    // 输入录像：开启后每局 reset 时新建，每 tick 追加按键位；回放时输入与升级选择改由录像提供
+    private boolean recordingEnabled;
+    private InputRecording recording;
+    private InputRecording.Playback playback;
+
+    // 压测用：玩家不受伤害（用于无尽模式高波次浸泡测试）
+    private boolean invulnerable = false;
+
+    // 每 tick 事件处理的预算（GamePanel 与无界面推进共用）：超出的事件顺延到下一 tick，保证帧时间有界
+    public static final long EVENT_BUDGET_NANOS = 2_000_000L; // 时间预算（2ms）
+    public static final int EVENT_BUDGET_COUNT = 256;         // 最多分发的事件数
+
+    // 分阶段耗时（跨局保留，调试面板/浸泡测试读取）
+    private final FrameProfiler profiler = new FrameProfiler();
+
+    // 碰撞粗筛：每 tick 重建的空间哈希；条目编号依次为
+    // 玩家子弹(gridPlayerSlots) / 弹幕池子弹(gridEnemySlots) / 弹幕池对象子弹(gridBullets) / 敌机(gridEnemies)
+    private static final int COLLISION_CELL_SIZE = 64;
+    private static final int CATEGORY_PLAYER_BULLET = 1;
+    private static final int CATEGORY_ENEMY_BULLET = 1 << 1;
+    private static final int CATEGORY_ENEMY = 1 << 2;
+    private final SpatialHash collisionGrid =
+            new SpatialHash(GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT, COLLISION_CELL_SIZE);
+    private final List<IBullet> gridBullets = new ArrayList<>();
+    private final List<EnemyAircraft> gridEnemies = new ArrayList<>();
+    private int[] gridPlayerSlots = new int[128];
+    private int[] gridEnemySlots = new int[256];
+    private int enemyBulletIdBase;
+    private int adoptedBulletIdBase;
+    private int enemyIdBase;
+    private int[] enemyLeft = new int[64];
+    private int[] enemyTop = new int[64];
+    private int[] enemyRight = new int[64];
+    private int[] enemyBottom = new int[64];
+    private final List<EnemyAircraft> frameEnemies = new ArrayList<>();
+    private final CollisionBox scratchBox = new CollisionBox();
+
+    // 碰撞阶段分配统计（HeadlessRunner --check-alloc）：只统计本 tick 没有发生命中的碰撞阶段
+    // （命中后的爆炸/事件对象属于玩法输出），且弹幕池里没有接管的对象子弹
+    // （自定义弹种经 IBullet.fillCollisionBox 默认实现走 getCollisionRect，不在零分配范围内）
+    private boolean measureCollisionAllocation = false;
+    private long collisionAllocatedBytes = 0L;
+    private long measuredCollisionTicks = 0L;
+    private int collisionHits;
+
+    // 同一 tick 内的事件合并：同名音效只播一次，射击事件只保留最后一次，多次得分合并为一次区间变化；
+    // 分发顺序：玩法事件（得分/波次/升级/结束）先于音效，射击事件仅作统计
+    static {
+        EventBus bus = EventBus.getDefault();
+        bus.setPriority(SoundEvent.class, EventBus.Priority.AUDIO);
+        bus.setPriority(FireEvent.class, EventBus.Priority.ANALYTICS);
+        bus.setCoalescing(SoundEvent.class, EventBus.Coalescing.DROP_DUPLICATES);
+        bus.setCoalescing(FireEvent.class, EventBus.Coalescing.KEEP_LAST);
+        bus.setMerger(ScoreChangedEvent.class,
+                (first, last) -> new ScoreChangedEvent(first.getOldScore(), last.getNewScore(), last.getPlayer()));
+    }
+
+    public GameSimulation() {
+        this(new RealTimeClock());
+    }
+
+    public GameSimulation(GameClock clock) {
+        this.clock = (clock == null) ? GameClock.SYSTEM : clock;
+        this.stepClock = (clock instanceof ManualClock) ? (ManualClock) clock : null;
+        // 开始界面阶段也需要一个玩家对象（尚未开局，不生成波次）
+        player = new PlayerAircraft(GameConfig.SCREEN_WIDTH / 2 - 20, 500, this.clock);
+    }
+
+    /**
+     * 开新一局：重置玩家/得分/爆炸，并生成第一波（随机种子）
+     */
+    public void reset(DifficultyProfile.DifficultyKey difficulty) {
+        reset(difficulty, GameRandom.newSeed());
+    }
+
+    /**
+     * 按指定种子开新一局：配合 ManualClock，相同种子 + 相同输入序列得到相同的一局
+     */
+    public void reset(DifficultyProfile.DifficultyKey difficulty, long seed) {
+        this.difficulty = (difficulty == null) ? DifficultyProfile.DifficultyKey.NEWBIE : difficulty;
+        this.random = new GameRandom(seed);
+        System.out.println("[GameSimulation] 本局种子：" + seed);
+        playback = null;
+        recording = recordingEnabled
+                ? new InputRecording(seed, this.difficulty, invulnerable ? InputRecording.FLAG_INVULNERABLE : 0)
+                : null;
+        setInput(false, false, false, false, false);
+
+        // 创建玩家飞机（居中底部）
+        player = new PlayerAircraft(GameConfig.SCREEN_WIDTH / 2 - 20, 500, clock);
+
+        // 同步难度到升级系统，并清理该玩家的升级计数（避免串局）
+        UpgradeManager.getInstance().setDifficulty(this.difficulty);
+        UpgradeManager.getInstance().resetForPlayer(player);
+
+        explosions.clear();
+        score = 0;
+        gameOver = false;
+        tickCount = 0L;
+        currentWaveNumber = 1;
+        // 初始化第一波（无尽型）
+        startNewWave();
+    }
+
+    /**
+     * 写入本 tick 的输入状态
+     */
+    public void setInput(boolean up, boolean down, boolean left, boolean right, boolean shoot) {
+        this.upPressed = up;
+        this.downPressed = down;
+        this.leftPressed = left;
+        this.rightPressed = right;
+        this.shootPressed = shoot;
+    }
+
+    /**
+     * 无界面推进：连续执行 ticks 次模拟，每次 tick 后按与 GamePanel 相同的预算处理事件队列。
+     * 使用 ManualClock 时每个 tick 前把时钟推进一个固定步长，模拟时间与 tick 数严格对应。
+     */
+    public void step(int ticks) {
+        for (int i = 0; i < ticks && !gameOver && !isReplayFinished(); i++) {
+            advanceTick();
+            long start = profiler.begin();
+            EventBus.getDefault().drain(EVENT_BUDGET_NANOS, EVENT_BUDGET_COUNT);
+            profiler.end(FrameProfiler.Phase.EVENTS, start);
+        }
+    }
+
+    /**
+     * 推进一个 tick：使用 ManualClock 时先把时钟推进一个固定步长，模拟时间只随 tick 流逝
+     * （不 tick 即暂停，录像回放时的时间轴与录制时一致）
+     */
+    public void advanceTick() {
+        if (stepClock != null) stepClock.advanceNanos(TICK_NANOS);
+        tick();
+    }
+
+    /**
+     * 单个模拟 tick
+     */
+    public void tick() {
+        // 未开局/已结束时不推进
+        if (player == null || currentWave == null || gameOver) return;
+        if (playback != null && !applyPlayback()) return;
+        long tickStart = profiler.begin();
+        long phaseStart = tickStart;
+        tickCount++;
+        if (recording != null) {
+            recording.record(InputRecording.bits(upPressed, downPressed, leftPressed, rightPressed, shootPressed));
+        }
+
+        // 记录上一 tick 坐标，供渲染插值
+        player.savePrevPosition();
+
+        // 控制玩家移动
+        controlPlayerMovement();
+
+        // 更新当前波次（小队移动+子弹)
+        currentWave.updateWave();
+        phaseStart = profiler.end(FrameProfiler.Phase.WAVE, phaseStart);
+
+        // 更新玩家状态（新增：处理无敌计时）
+        player.update();
+
+        // 更新玩家子弹
+        if (shootPressed) {
+            // 受射击间隔限制，只有真正发射的 tick 才发射击事件/音效
+            if (player.shoot()) {
+                if (EventBus.getDefault().hasSubscribers(FireEvent.class)) {
+                    EventBus.getDefault().post(new FireEvent(0, "basic", player.getX(), player.getY()));
+                }
+                EventBus.getDefault().post(SoundEvent.SHOOT);
+            }
+        }
+        player.updateBullets();
+        phaseStart = profiler.end(FrameProfiler.Phase.PLAYER, phaseStart);
+
+        // 碰撞检测
+        if (measureCollisionAllocation) {
+            long before = AllocationProbe.currentThreadAllocatedBytes();
+            checkCollisions();
+            long allocated = AllocationProbe.currentThreadAllocatedBytes() - before;
+            if (collisionHits == 0 && currentWave.getEnemyProjectiles().getAdopted().isEmpty()) {
+                collisionAllocatedBytes += allocated;
+                measuredCollisionTicks++;
+            }
+        } else {
+            checkCollisions();
+        }
+        phaseStart = profiler.end(FrameProfiler.Phase.COLLISION, phaseStart);
+
+        // 更新爆炸效果
+        updateExplosions();
+
+        // 检查波次切换（无尽型）
+        checkWaveSwitch();
+
+        // 检查游戏结束
+        checkGameOver();
+        profiler.end(FrameProfiler.Phase.EFFECTS, phaseStart);
+        profiler.end(FrameProfiler.Phase.TICK, tickStart);
+    }
+
+    // 启动新波次（无尽型，无限递增）
+    private void startNewWave() {
+        // 绑定当前难度到波次（后续所有难度差异从这里开始传递）
+        currentWave = new Wave(currentWaveNumber, difficulty, clock, random);
+
+        // 打印波次信息（控制台）
+        System.out.println("===== 无尽模式 - 第" + currentWaveNumber + "波 =====");
+        System.out.println("小队数量：" + currentWave.getSquads().size());
+        for (EnemySquad squad : currentWave.getSquads()) {
+            System.out.println("小队" + squad.getSquadId() + "：编队=" + squad.getFormation() + "，运动=" + squad.getMoveType());
+        }
+
+        EventBus.getDefault().post(new WaveStartedEvent(currentWaveNumber));
+    }
+
+    // 检查波次切换（无尽型，波次无限递增）
+    private void checkWaveSwitch() {
+        if (currentWave.isWaveOver()) {
+            // 波次结束，启动下一波（无尽递增）
+            currentWaveNumber++;
+            startNewWave();
+        }
+    }
+
+    // 控制玩家移动（边界统一使用 GameConfig，与面板尺寸一致）
+    private void controlPlayerMovement() {
+        if (upPressed) player.moveUp();
+        if (downPressed) player.moveDown(GameConfig.SCREEN_HEIGHT);
+        if (leftPressed) player.moveLeft();
+        if (rightPressed) player.moveRight(GameConfig.SCREEN_WIDTH);
+    }
+
+    // 更新爆炸效果
+    private void updateExplosions() {
+        Iterator<Explosion> iterator = explosions.iterator();
+        while (iterator.hasNext()) {
+            Explosion explosion = iterator.next();
+            if (explosion.isExpired()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // 碰撞检测（适配小队敌机）：每 tick 重建空间哈希，只在附近格子里找候选
+    private void checkCollisions() {
+        currentWave.collectAllEnemies(frameEnemies);
+        checkCollisions(frameEnemies);
+    }
+
+    // 对给定敌机列表做一次碰撞检测（包内可见：CollisionBenchRunner 直接构造敌机/子弹分布调用）
+    void checkCollisions(List<EnemyAircraft> allEnemies) {
+        collisionHits = 0;
+        buildCollisionGrid(allEnemies);
+
+        // 1. 玩家子弹击中敌机（每架敌机每 tick 至多吃一颗子弹，取列表中最靠前的那颗）
+        BulletStore playerBullets = player.getBulletStore();
+        boolean playerBulletConsumed = false;
+        for (int i = 0; i < gridEnemies.size(); i++) {
+            EnemyAircraft enemy = gridEnemies.get(i);
+            int id = collisionGrid.queryFirst(CATEGORY_PLAYER_BULLET,
+                    enemyLeft[i], enemyTop[i], enemyRight[i], enemyBottom[i]);
+            if (id < 0) continue;
+
+            int slot = gridPlayerSlots[id];
+            // apply damage from bullet to enemy
+            enemy.hit(playerBullets.getDamage(slot));
+            playerBullets.kill(slot);
+            collisionGrid.disable(id);
+            playerBulletConsumed = true;
+            collisionHits++;
+            // 添加爆炸效果
+            explosions.add(new Explosion(enemy.getX(), enemy.getY(), clock));
+            // 发布爆炸音效事件和得分事件
+            EventBus.getDefault().post(SoundEvent.EXPLODE);
+            int oldScore = score;
+            score += 10 * currentWaveNumber; // 波次越高，得分越高（无尽难度奖励）
+            EventBus.getDefault().post(new ScoreChangedEvent(oldScore, score, player));
+        }
+        if (playerBulletConsumed) {
+            playerBullets.compact();
+        }
+
+        // 压测模式：跳过所有对玩家的伤害结算
+        if (invulnerable) return;
+
+        CollisionBox playerBox = player.fillCollisionBox(scratchBox);
+        int pl = playerBox.left, pt = playerBox.top;
+        int pr = playerBox.right, pb = playerBox.bottom;
+
+        // 2. 敌机子弹击中玩家
+        int hitId = collisionGrid.queryFirst(CATEGORY_ENEMY_BULLET, pl, pt, pr, pb);
+        if (hitId >= 0) {
+            // 玩家扣血：固定每次 1 点，避免出现“单次命中扣 2HP”
+            player.hit(1);
+            collisionHits++;
+            if (hitId >= adoptedBulletIdBase) {
+                gridBullets.get(hitId - adoptedBulletIdBase).setAlive(false);
+            } else {
+                currentWave.getEnemyProjectiles().getStore().kill(gridEnemySlots[hitId - enemyBulletIdBase]);
+            }
+            // 添加爆炸效果
+            explosions.add(new Explosion(player.getX(), player.getY(), clock));
+            EventBus.getDefault().post(SoundEvent.EXPLODE);
+
+            // 关键：受击后立刻无敌，本帧不再继续处理更多子弹/碰撞，防止“堆子弹秒杀”
+            return;
+        }
+
+        // 3. 敌机碰撞玩家（本 tick 已被击毁的敌机不参与）
+        int enemyId = collisionGrid.queryFirst(CATEGORY_ENEMY, pl, pt, pr, pb);
+        while (enemyId >= 0) {
+            EnemyAircraft enemy = gridEnemies.get(enemyId - enemyIdBase);
+            if (enemy.isAlive()) {
+                player.hit(1); // 只扣1血，和敌机子弹一致
+                enemy.hit(1);
+                collisionHits++;
+                explosions.add(new Explosion(player.getX(), player.getY(), clock));
+                EventBus.getDefault().post(SoundEvent.EXPLODE);
+
+                // 同理：撞击后本帧也停止后续碰撞结算
+                return;
+            }
+            collisionGrid.disable(enemyId);
+            enemyId = collisionGrid.queryFirst(CATEGORY_ENEMY, pl, pt, pr, pb);
+        }
+    }
+
+    /**
+     * 重建碰撞网格：玩家子弹 → 本波敌方子弹 → 存活敌机，依次插入。
+     * 条目编号按插入顺序递增，queryFirst 取最小编号，命中顺序与逐个遍历列表一致。
+     */
+    private void buildCollisionGrid(List<EnemyAircraft> allEnemies) {
+        collisionGrid.clear();
+        gridBullets.clear();
+        gridEnemies.clear();
+
+        // 玩家子弹直接读 BulletStore 的槽位坐标
+        BulletStore playerBullets = player.getBulletStore();
+        int size = BulletStore.BULLET_SIZE;
+        if (gridPlayerSlots.length < playerBullets.size()) {
+            gridPlayerSlots = new int[Math.max(playerBullets.size(), gridPlayerSlots.length * 2)];
+        }
+        for (int slot = 0; slot < playerBullets.size(); slot++) {
+            if (!playerBullets.isAlive(slot)) continue;
+            int bx = playerBullets.getX(slot), by = playerBullets.getY(slot);
+            int id = collisionGrid.insert(CATEGORY_PLAYER_BULLET, bx, by, bx + size, by + size);
+            gridPlayerSlots[id] = slot;
+        }
+
+        // 敌方子弹：本波弹幕池（发射者死亡后子弹仍有效）
+        EnemyProjectilePool pool = currentWave.getEnemyProjectiles();
+        BulletStore enemyBullets = pool.getStore();
+        enemyBulletIdBase = collisionGrid.size();
+        if (gridEnemySlots.length < enemyBullets.size()) {
+            gridEnemySlots = new int[Math.max(enemyBullets.size(), gridEnemySlots.length * 2)];
+        }
+        for (int slot = 0; slot < enemyBullets.size(); slot++) {
+            if (!enemyBullets.isAlive(slot)) continue;
+            int bx = enemyBullets.getX(slot), by = enemyBullets.getY(slot);
+            int id = collisionGrid.insert(CATEGORY_ENEMY_BULLET, bx, by, bx + size, by + size);
+            gridEnemySlots[id - enemyBulletIdBase] = slot;
+        }
+        adoptedBulletIdBase = collisionGrid.size();
+        List<IBullet> adopted = pool.getAdopted();
+        for (int i = 0; i < adopted.size(); i++) {
+            IBullet bullet = adopted.get(i);
+            if (bullet.isAlive()) insertBullet(CATEGORY_ENEMY_BULLET, bullet);
+        }
+
+        enemyIdBase = collisionGrid.size();
+        for (int e = 0; e < allEnemies.size(); e++) {
+            EnemyAircraft enemy = allEnemies.get(e);
+            if (!enemy.isAlive()) continue;
+            int i = gridEnemies.size();
+            if (i == enemyLeft.length) growEnemyBounds();
+            CollisionBox box = enemy.fillCollisionBox(scratchBox);
+            enemyLeft[i] = box.left;
+            enemyTop[i] = box.top;
+            enemyRight[i] = box.right;
+            enemyBottom[i] = box.bottom;
+            gridEnemies.add(enemy);
+            collisionGrid.insert(CATEGORY_ENEMY, box.left, box.top, box.right, box.bottom);
+        }
+
+        collisionGrid.build();
+    }
+
+    private void insertBullet(int category, IBullet bullet) {
+        CollisionBox box = bullet.fillCollisionBox(scratchBox);
+        collisionGrid.insert(category, box.left, box.top, box.right, box.bottom);
+        gridBullets.add(bullet);
+    }
+
+    private void growEnemyBounds() {
+        int n = enemyLeft.length * 2;
+        enemyLeft = Arrays.copyOf(enemyLeft, n);
+        enemyTop = Arrays.copyOf(enemyTop, n);
+        enemyRight = Arrays.copyOf(enemyRight, n);
+        enemyBottom = Arrays.copyOf(enemyBottom, n);
+    }
+
+    // 检查游戏结束：只负责判定与发布事件，结算界面/音乐由界面层订阅处理
+    private void checkGameOver() {
+        if (!player.isAlive() && !gameOver) {
+            gameOver = true;
+            EventBus.getDefault().post(new GameOverEvent(score, currentWaveNumber));
+        }
+    }
+
+    /**
+     * 应用一次升级选择（由升级弹窗在模拟 tick 之间调用，调用方持有世界锁）；录制中会记下所在 tick
+     */
+    public void applyUpgrade(UpgradeOption option) {
+        if (option == null || player == null) return;
+        if (recording != null) recording.recordUpgrade(tickCount, option.ordinal());
+        UpgradeManager.getInstance().applyUpgrade(player, option);
+    }
+
+    /**
+     * 开启/关闭输入录制（从下一次 reset 开始生效）
+     */
+    public void setRecordingEnabled(boolean enabled) {
+        this.recordingEnabled = enabled;
+        if (!enabled) recording = null;
+    }
+
+    /** 当前这局的录像（未开启录制或回放中为 null） */
+    public InputRecording getRecording() { return recording; }
+
+    /**
+     * 按录像重开一局并进入回放：种子、难度、无敌标记取自录像，之后每 tick 的输入与升级选择都来自录像。
+     * 需配合 ManualClock（按 tick 推进的时间轴）才能得到与录制时相同的结果。
+     */
+    public void replay(InputRecording source) {
+        setInvulnerable(source.hasFlag(InputRecording.FLAG_INVULNERABLE));
+        reset(source.getDifficulty(), source.getSeed());
+        recording = null;
+        playback = source.playback();
+    }
+
+    public boolean isReplaying() { return playback != null; }
+
+    /** 回放中且录像已放完 */
+    public boolean isReplayFinished() { return playback != null && playback.isFinished(); }
+
+    // 回放：先应用录制时在上一 tick 之后做出的升级选择，再取本 tick 的按键位；录像放完返回 false
+    private boolean applyPlayback() {
+        int option;
+        while ((option = playback.pollUpgrade(tickCount)) >= 0) {
+            if (option < UpgradeOption.values().length) {
+                UpgradeManager.getInstance().applyUpgrade(player, UpgradeOption.values()[option]);
+            }
+        }
+        int bits = playback.nextBits();
+        if (bits < 0) return false;
+        setInput((bits & InputRecording.UP) != 0, (bits & InputRecording.DOWN) != 0,
+                (bits & InputRecording.LEFT) != 0, (bits & InputRecording.RIGHT) != 0,
+                (bits & InputRecording.SHOOT) != 0);
+        return true;
+    }
+
+    // Getter & Setter
+    public PlayerAircraft getPlayer() { return player; }
+    public Wave getCurrentWave() { return currentWave; }
+    public int getCurrentWaveNumber() { return currentWaveNumber; }
+    public List<Explosion> getExplosions() { return explosions; }
+    public int getScore() { return score; }
+    public boolean isGameOver() { return gameOver; }
+    public long getTickCount() { return tickCount; }
+    public DifficultyProfile.DifficultyKey getDifficulty() { return difficulty; }
+    public GameClock getClock() { return clock; }
+    public GameRandom getRandom() { return random; }
+    public FrameProfiler getProfiler() { return profiler; }
+    public long getSeed() { return random.getSeed(); }
+    public boolean isInvulnerable() { return invulnerable; }
+    public void setInvulnerable(boolean invulnerable) { this.invulnerable = invulnerable; }
+    public void setMeasureCollisionAllocation(boolean measure) {
+        this.measureCollisionAllocation = measure && AllocationProbe.isSupported();
+    }
+    public long getCollisionAllocatedBytes() { return collisionAllocatedBytes; }
+    public long getMeasuredCollisionTicks() { return measuredCollisionTicks; }
+}
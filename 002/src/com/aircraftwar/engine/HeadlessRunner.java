@@ -0,0 +1,142 @@
+package com.aircraftwar.engine;
+
+import com.aircraftwar.entity.DifficultyProfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无界面浸泡测试入口：不创建任何窗口，以 CPU 允许的最快速度推进 GameSimulation。
+ * 用法：HeadlessRunner [newbie|veteran|impossible] [ticks] [--check-alloc] [--seed=N]
+ *                      [--record=文件] [--replay=文件] [--speed=1|8|max]
+ * --check-alloc：统计碰撞阶段的内存分配，未命中的 tick 上分配量不为 0 时以退出码 1 结束。
+ * --seed：本局随机种子（默认固定值，保证每次运行的负载相同，便于前后对比）。
+ * --record：把本次运行的输入录像写入文件。
+ * --replay：回放录像（游戏内保存在 replays/），难度/种子取自录像，默认放到录像结束；
+ *           --speed 为回放倍速（1 = 实时，8 = 八倍速，max = 不限速，默认 max）。
+ */
+public class HeadlessRunner {
+    private static final long DEFAULT_SEED = 20240601L;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        boolean checkAlloc = false;
+        long seed = DEFAULT_SEED;
+        String recordPath = null;
+        String replayPath = null;
+        double speed = 0; // <= 0：不限速
+        java.util.List<String> positional = new java.util.ArrayList<>();
+        for (String arg : args) {
+            if ("--check-alloc".equals(arg.trim())) {
+                checkAlloc = true;
+            } else if (arg.trim().startsWith("--seed=")) {
+                seed = Long.parseLong(arg.trim().substring("--seed=".length()));
+            } else if (arg.trim().startsWith("--record=")) {
+                recordPath = arg.trim().substring("--record=".length());
+            } else if (arg.trim().startsWith("--replay=")) {
+                replayPath = arg.trim().substring("--replay=".length());
+            } else if (arg.trim().startsWith("--speed=")) {
+                String value = arg.trim().substring("--speed=".length());
+                speed = "max".equalsIgnoreCase(value) ? 0 : Double.parseDouble(value);
+            } else {
+                positional.add(arg.trim());
+            }
+        }
+
+        DifficultyProfile.DifficultyKey difficulty = DifficultyProfile.DifficultyKey.IMPOSSIBLE;
+        if (positional.size() > 0) {
+            difficulty = DifficultyProfile.DifficultyKey.valueOf(positional.get(0).toUpperCase());
+        }
+        int ticks = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 100_000;
+
+        // 手动步进时钟：模拟时间只随 tick 推进，40 秒的波次在毫秒级完成
+        GameSimulation simulation = new GameSimulation(new ManualClock());
+        if (replayPath != null) {
+            InputRecording recording;
+            try {
+                recording = InputRecording.readFrom(new File(replayPath));
+            } catch (IOException e) {
+                System.out.println("[HeadlessRunner] 无法读取录像 " + replayPath + "：" + e.getMessage());
+                System.exit(2);
+                return;
+            }
+            difficulty = recording.getDifficulty();
+            seed = recording.getSeed();
+            if (positional.size() <= 1) ticks = (int) Math.min(Integer.MAX_VALUE, recording.getTicks());
+            System.out.println("[HeadlessRunner] 回放 " + replayPath + "：" + recording.getTicks() + " tick，"
+                    + recording.getRunCount() + " 段输入，" + recording.getUpgradeCount() + " 次升级");
+            simulation.replay(recording);
+        } else {
+            simulation.setRecordingEnabled(recordPath != null);
+            // 浸泡测试关心的是高波次下的负载，玩家不参与伤害结算
+            simulation.setInvulnerable(true);
+            simulation.reset(difficulty, seed);
+            // 持续开火，让子弹/碰撞路径始终处于负载状态
+            simulation.setInput(false, false, false, false, true);
+        }
+
+        if (checkAlloc) {
+            if (!AllocationProbe.isSupported()) {
+                System.out.println("[HeadlessRunner] 当前 JVM 不支持线程分配统计，跳过 --check-alloc");
+                checkAlloc = false;
+            } else {
+                // 预热：让 JIT 编译完成、复用缓冲扩容到稳定大小，再开始计量
+                run(simulation, Math.min(ticks, 20_000), speed);
+                simulation.setMeasureCollisionAllocation(true);
+            }
+        }
+
+        long start = System.nanoTime();
+        run(simulation, ticks, speed);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[HeadlessRunner] difficulty=%s seed=%d ticks=%d wave=%d score=%d time=%.2fs (%.0f ticks/s)%n",
+                difficulty, seed, simulation.getTickCount(), simulation.getCurrentWaveNumber(),
+                simulation.getScore(), seconds, simulation.getTickCount() / Math.max(1e-9, seconds));
+
+        // 分阶段耗时（最近 FrameProfiler.CAPACITY 个 tick）
+        FrameProfiler.Summary summary = new FrameProfiler.Summary();
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            if (simulation.getProfiler().summarize(phase, summary).count == 0) continue;
+            System.out.printf("[HeadlessRunner] %-12s p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms%n", phase.getLabel(),
+                    summary.p50 / 1e6, summary.p95 / 1e6, summary.p99 / 1e6, summary.max / 1e6);
+        }
+
+        if (checkAlloc) {
+            long bytes = simulation.getCollisionAllocatedBytes();
+            long measured = simulation.getMeasuredCollisionTicks();
+            System.out.printf("[HeadlessRunner] collision alloc=%d bytes over %d hit-free ticks (%.2f bytes/tick)%n",
+                    bytes, measured, bytes / (double) Math.max(1, measured));
+            if (bytes != 0) System.exit(1);
+        }
+
+        if (recordPath != null && simulation.getRecording() != null) {
+            try {
+                File file = new File(recordPath);
+                simulation.getRecording().writeTo(file);
+                System.out.println("[HeadlessRunner] 录像已保存：" + file.getPath() + "（" + file.length() + " 字节）");
+            } catch (IOException e) {
+                System.out.println("[HeadlessRunner] 录像保存失败：" + e.getMessage());
+            }
+        }
+    }
+
+    // 推进 ticks 个 tick；speed > 0 时按 speed 倍实时节奏推进（回放观察用），否则不限速
+    private static void run(GameSimulation simulation, int ticks, double speed) {
+        if (speed <= 0) {
+            simulation.step(ticks);
+            return;
+        }
+        long interval = (long) (GameSimulation.TICK_NANOS / speed);
+        long next = System.nanoTime();
+        for (int i = 0; i < ticks && !simulation.isGameOver() && !simulation.isReplayFinished(); i++) {
+            simulation.step(1);
+            next += interval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.aircraftwar.engine;
+
+import com.aircraftwar.entity.DifficultyProfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 一局的输入录像：种子 + 难度 + 每 tick 的 5 个按键位（游程编码）+ 升级选择（所在 tick）。
+ * 配合 ManualClock 与 GameRandom，回放得到与录制时相同的一局。
+ *
+ * 文件格式：
+ * <pre>
+ * 头部（明文）：magic "AWRP" | version(short) | flags(byte) | seed(long) | difficulty(UTF) | tickRate(int) | ticks(long)
+ * 正文（deflate）：runCount | {bits(byte), length} × runCount | upgradeCount | {tickDelta, option(byte)} × upgradeCount
+ * </pre>
+ * 计数/长度/tick 差值都是变长整数（每字节 7 位）。按键很少逐 tick 变化，一小时的录像通常只有几 KB。
+ *
+ * 录制只由游戏线程调用；写文件前用 snapshot() 取一份副本，可交给其他线程保存。
+ */
+public final class InputRecording {
+    public static final int UP = 1;
+    public static final int DOWN = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int RIGHT = 1 << 3;
+    public static final int SHOOT = 1 << 4;
+
+    public static final int FLAG_INVULNERABLE = 1;
+
+    private static final int MAGIC = 0x41575250; // "AWRP"
+    private static final short VERSION = 1;
+
+    private final long seed;
+    private final DifficultyProfile.DifficultyKey difficulty;
+    private final int flags;
+
+    // 游程：runBits[i] 连续出现 runLengths[i] 个 tick
+    private byte[] runBits = new byte[64];
+    private int[] runLengths = new int[64];
+    private int runCount;
+    private long ticks;
+
+    // 升级选择：在 upgradeTicks[i] 个 tick 之后应用 upgradeOptions[i]
+    private long[] upgradeTicks = new long[8];
+    private byte[] upgradeOptions = new byte[8];
+    private int upgradeCount;
+
+    public InputRecording(long seed, DifficultyProfile.DifficultyKey difficulty, int flags) {
+        this.seed = seed;
+        this.difficulty = (difficulty == null) ? DifficultyProfile.DifficultyKey.NEWBIE : difficulty;
+        this.flags = flags;
+    }
+
+    public static int bits(boolean up, boolean down, boolean left, boolean right, boolean shoot) {
+        return (up ? UP : 0) | (down ? DOWN : 0) | (left ? LEFT : 0) | (right ? RIGHT : 0) | (shoot ? SHOOT : 0);
+    }
+
+    /**
+     * 追加一个 tick 的按键位
+     */
+    public void record(int bits) {
+        appendRun((byte) bits, 1);
+    }
+
+    private void appendRun(byte bits, int length) {
+        if (runCount > 0 && runBits[runCount - 1] == bits && runLengths[runCount - 1] <= Integer.MAX_VALUE - length) {
+            runLengths[runCount - 1] += length;
+        } else {
+            if (runCount == runBits.length) {
+                runBits = Arrays.copyOf(runBits, runCount * 2);
+                runLengths = Arrays.copyOf(runLengths, runCount * 2);
+            }
+            runBits[runCount] = bits;
+            runLengths[runCount] = length;
+            runCount++;
+        }
+        ticks += length;
+    }
+
+    /**
+     * 记录一次升级选择：afterTick 为应用时已完成的 tick 数
+     */
+    public void recordUpgrade(long afterTick, int option) {
+        if (upgradeCount == upgradeTicks.length) {
+            upgradeTicks = Arrays.copyOf(upgradeTicks, upgradeCount * 2);
+            upgradeOptions = Arrays.copyOf(upgradeOptions, upgradeCount * 2);
+        }
+        upgradeTicks[upgradeCount] = afterTick;
+        upgradeOptions[upgradeCount] = (byte) option;
+        upgradeCount++;
+    }
+
+    /**
+     * 当前内容的副本（录制仍可继续）
+     */
+    public InputRecording snapshot() {
+        InputRecording copy = new InputRecording(seed, difficulty, flags);
+        copy.runBits = Arrays.copyOf(runBits, Math.max(1, runCount));
+        copy.runLengths = Arrays.copyOf(runLengths, Math.max(1, runCount));
+        copy.runCount = runCount;
+        copy.ticks = ticks;
+        copy.upgradeTicks = Arrays.copyOf(upgradeTicks, Math.max(1, upgradeCount));
+        copy.upgradeOptions = Arrays.copyOf(upgradeOptions, Math.max(1, upgradeCount));
+        copy.upgradeCount = upgradeCount;
+        return copy;
+    }
+
+    public long getSeed() { return seed; }
+    public DifficultyProfile.DifficultyKey getDifficulty() { return difficulty; }
+    public int getFlags() { return flags; }
+    public boolean hasFlag(int flag) { return (flags & flag) != 0; }
+    public long getTicks() { return ticks; }
+    public int getRunCount() { return runCount; }
+    public int getUpgradeCount() { return upgradeCount; }
+
+    // ===== 读写 =====
+
+    public void writeTo(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录：" + parent);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            writeTo(out);
+        }
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeByte(flags);
+        header.writeLong(seed);
+        header.writeUTF(difficulty.name());
+        header.writeInt(GameSimulation.TICK_RATE);
+        header.writeLong(ticks);
+        header.flush();
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 4096);
+            DataOutputStream body = new DataOutputStream(deflated);
+            writeVarLong(body, runCount);
+            for (int i = 0; i < runCount; i++) {
+                body.writeByte(runBits[i]);
+                writeVarLong(body, runLengths[i]);
+            }
+            writeVarLong(body, upgradeCount);
+            long previous = 0;
+            for (int i = 0; i < upgradeCount; i++) {
+                writeVarLong(body, upgradeTicks[i] - previous);
+                body.writeByte(upgradeOptions[i]);
+                previous = upgradeTicks[i];
+            }
+            body.flush();
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+        out.flush();
+    }
+
+    public static InputRecording readFrom(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return readFrom(in);
+        }
+    }
+
+    public static InputRecording readFrom(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) throw new IOException("不是输入录像文件");
+        short version = header.readShort();
+        if (version != VERSION) throw new IOException("不支持的录像版本：" + version);
+        int flags = header.readUnsignedByte();
+        long seed = header.readLong();
+        DifficultyProfile.DifficultyKey difficulty;
+        try {
+            difficulty = DifficultyProfile.DifficultyKey.valueOf(header.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("录像中的难度无效", e);
+        }
+        int tickRate = header.readInt();
+        if (tickRate != GameSimulation.TICK_RATE) {
+            throw new IOException("录像的模拟频率 " + tickRate + " 与当前 " + GameSimulation.TICK_RATE + " 不一致");
+        }
+        long expectedTicks = header.readLong();
+
+        InputRecording rec = new InputRecording(seed, difficulty, flags);
+        DataInputStream body = new DataInputStream(new InflaterInputStream(in));
+        long runs = readVarLong(body);
+        for (long i = 0; i < runs; i++) {
+            byte bits = body.readByte();
+            long length = readVarLong(body);
+            if (length <= 0 || length > Integer.MAX_VALUE || rec.ticks + length > expectedTicks) {
+                throw new IOException("录像已损坏：游程长度 " + length);
+            }
+            rec.appendRun(bits, (int) length);
+        }
+        long upgrades = readVarLong(body);
+        long tick = 0;
+        for (long i = 0; i < upgrades; i++) {
+            long delta = readVarLong(body);
+            if (delta < 0 || tick + delta > expectedTicks) {
+                throw new IOException("录像已损坏：升级间隔 " + delta);
+            }
+            tick += delta;
+            rec.recordUpgrade(tick, body.readUnsignedByte());
+        }
+        if (rec.ticks != expectedTicks) {
+            throw new IOException("录像已损坏：tick 数 " + rec.ticks + " ≠ " + expectedTicks);
+        }
+        return rec;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new EOFException("变长整数过长");
+    }
+
+    // ===== 回放 =====
+
+    /**
+     * 顺序读取录像的游标（回放时由 GameSimulation 每 tick 调用）
+     */
+    public Playback playback() {
+        return new Playback();
+    }
+
+    public final class Playback {
+        private int run;
+        private int usedInRun;
+        private int nextUpgrade;
+        private long position;
+
+        /** 下一个 tick 的按键位；录像已放完返回 -1 */
+        public int nextBits() {
+            while (run < runCount && usedInRun >= runLengths[run]) {
+                run++;
+                usedInRun = 0;
+            }
+            if (run >= runCount) return -1;
+            usedInRun++;
+            position++;
+            return runBits[run];
+        }
+
+        /**
+         * 在 afterTick 个 tick 之后待应用的下一个升级选项；没有则返回 -1
+         */
+        public int pollUpgrade(long afterTick) {
+            if (nextUpgrade < upgradeCount && upgradeTicks[nextUpgrade] <= afterTick) {
+                return upgradeOptions[nextUpgrade++];
+            }
+            return -1;
+        }
+
+        public boolean isFinished() { return position >= ticks; }
+        public long getPosition() { return position; }
+        public InputRecording getRecording() { return InputRecording.this; }
+    }
+}
@@ -0,0 +1,24 @@
+package com.aircraftwar.engine;
+
+/**
+ * 渲染插值系数：渲染线程在每帧绘制前写入，实体的 draw() 用它在上一 tick 与当前 tick 的坐标之间插值。
+ * 非渲染循环（如直接调用 paint）保持 1.0，即直接使用最新坐标。
+ */
+public final class Interpolation {
+    private static volatile double alpha = 1.0;
+
+    private Interpolation() {}
+
+    public static double getAlpha() {
+        return alpha;
+    }
+
+    public static void setAlpha(double value) {
+        alpha = value;
+    }
+
+    // 在上一 tick 坐标与当前坐标之间线性插值
+    public static int lerp(int prev, int current) {
+        return prev + (int) Math.round((current - prev) * alpha);
+    }
+}
@@ -0,0 +1,36 @@
+package com.aircraftwar.engine;
+
+/**
+ * 手动步进时钟：时间只在 advance() 时前进，用于无界面模拟以远快于真实时间的速度推进。
+ * 起点固定（而非墙上时间），相同的推进序列得到相同的时间轴。
+ */
+public class ManualClock implements GameClock {
+    // 固定起点：避开实体里以 0 作为“从未发生”的时间戳初始值
+    public static final long DEFAULT_START_MILLIS = 1_000_000L;
+
+    private final long startMillis;
+    private volatile long elapsedNanos = 0L;
+
+    public ManualClock() {
+        this(DEFAULT_START_MILLIS);
+    }
+
+    public ManualClock(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    @Override
+    public long nowMillis() {
+        return startMillis + elapsedNanos / 1_000_000L;
+    }
+
+    // 以纳秒推进（固定步长 tick 不是整毫秒，用纳秒累计避免漂移）
+    public void advanceNanos(long nanos) {
+        if (nanos < 0) throw new IllegalArgumentException("cannot go back in time: " + nanos);
+        elapsedNanos += nanos;
+    }
+
+    public void advanceMillis(long millis) {
+        advanceNanos(millis * 1_000_000L);
+    }
+}
@@ -0,0 +1,93 @@
+package com.aircraftwar.engine;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 热点路径计时工具（各包的 *BenchRunner 共用）：预热后在固定时长内反复调用被测代码，
+ * 输出每秒操作数（ops/s）与每次操作的分配字节数（bytes/op，由 AllocationProbe 读取当前线程）。
+ * 不是 JMH：没有 fork 隔离，只用于同一台机器、同一 JVM 参数下的前后对比。
+ * 公共参数：--warmup=毫秒（默认 1000）、--time=毫秒（默认 2000）。
+ */
+public final class MicroBench {
+    /** 所有 runner 共用的随机种子：每次运行的负载相同，前后两次结果才可比 */
+    public static final long SEED = 20240601L;
+
+    /** 被测代码：返回值会被累加，避免整段调用被当作死代码消除 */
+    public interface Body {
+        long run() throws Exception;
+    }
+
+    // 结果输出到启动时的控制台：muteConsole() 之后游戏代码的 println 不会混进来
+    private static final PrintStream OUT = System.out;
+    private static long warmupNanos = 1_000_000_000L;
+    private static long measureNanos = 2_000_000_000L;
+    private static volatile long sink; // 累加结果写到这里，JIT 不能把被测调用当死代码去掉
+
+    private MicroBench() {}
+
+    /**
+     * 取走公共参数（--warmup= / --time=），返回其余参数
+     */
+    public static List<String> configure(String[] args) {
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            String a = arg.trim();
+            if (a.startsWith("--warmup=")) {
+                warmupNanos = Long.parseLong(a.substring("--warmup=".length())) * 1_000_000L;
+            } else if (a.startsWith("--time=")) {
+                measureNanos = Math.max(1, Long.parseLong(a.substring("--time=".length()))) * 1_000_000L;
+            } else {
+                rest.add(a);
+            }
+        }
+        return rest;
+    }
+
+    /**
+     * 关闭游戏代码的控制台日志（敌机构造、波次信息等逐条 println），避免 I/O 混入测量结果
+     */
+    public static void muteConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    public static void println(String line) {
+        OUT.println(line);
+    }
+
+    /**
+     * 测量一段代码并输出一行结果。opsPerCall：每次调用 body 包含的操作数（例如一次调用跑 N 个 tick），
+     * ops/s 与 bytes/op 都按操作计。
+     */
+    public static void run(String label, int opsPerCall, Body body) throws Exception {
+        // 预热：同时把每批调用数调到约 1ms，短操作的计时开销不会压过被测代码本身
+        long batch = 1;
+        long acc = 0;
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < warmupEnd) {
+            long t0 = System.nanoTime();
+            for (long i = 0; i < batch; i++) acc += body.run();
+            if (System.nanoTime() - t0 < 1_000_000L && batch < (1L << 30)) batch <<= 1;
+        }
+
+        long calls = 0;
+        long bytesBefore = AllocationProbe.currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + measureNanos;
+        long now;
+        do {
+            for (long i = 0; i < batch; i++) acc += body.run();
+            calls += batch;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long bytes = AllocationProbe.currentThreadAllocatedBytes() - bytesBefore;
+        sink += acc;
+
+        double ops = (double) calls * opsPerCall;
+        double opsPerSecond = ops * 1e9 / (now - start);
+        String bytesPerOp = AllocationProbe.isSupported() ? String.format("%.1f", bytes / ops) : "n/a";
+        OUT.printf("%-56s ops/s=%,14.0f  bytes/op=%10s%n", label, opsPerSecond, bytesPerOp);
+    }
+}
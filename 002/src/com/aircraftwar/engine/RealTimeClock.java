@@ -0,0 +1,53 @@
+package com.aircraftwar.engine;
+
+/**
+ * 实时时钟：按 System.nanoTime 单调推进，可暂停/恢复（暂停期间模拟时间不流逝）。
+ */
+public class RealTimeClock implements GameClock {
+    // 锚点：上一次改变速率/暂停状态时的墙上时间与模拟时间
+    private long anchorNanos;
+    private double anchorMillis;
+    // 模拟时间相对真实时间的流速（RealTimeClock 固定为 1.0）
+    protected double rate = 1.0;
+    private boolean paused = false;
+
+    public RealTimeClock() {
+        this.anchorNanos = System.nanoTime();
+        this.anchorMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized long nowMillis() {
+        return (long) currentMillis();
+    }
+
+    /**
+     * 暂停：模拟时间停在当前值（如升级弹窗打开期间）
+     */
+    public synchronized void pause() {
+        if (paused) return;
+        rebase();
+        paused = true;
+    }
+
+    public synchronized void resume() {
+        if (!paused) return;
+        anchorNanos = System.nanoTime();
+        paused = false;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    // 以当前时刻为新锚点（修改流速前调用，保证时间连续）
+    protected synchronized void rebase() {
+        anchorMillis = currentMillis();
+        anchorNanos = System.nanoTime();
+    }
+
+    private double currentMillis() {
+        if (paused) return anchorMillis;
+        return anchorMillis + (System.nanoTime() - anchorNanos) * rate / 1_000_000.0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.aircraftwar.engine;
+
+import com.aircraftwar.util.DrawUtil;
+import com.aircraftwar.util.ImageUtil;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * 一帧的绘制指令列表：渲染线程在 worldLock 内让实体把“画什么、画在哪（已插值）”写进来，
+ * 释放锁后再 draw() 真正光栅化，模拟线程不必等待整帧绘制完成。
+ *
+ * 指令只是 int 数组里的几个数，列表逐帧 clear() 复用，采集过程不分配对象。
+ * 每个列表只由一个线程使用（渲染线程与 EDT 各持一份）。
+ */
+public final class RenderList {
+    private static final int OP_SPRITE = 1;           // 精灵编号, x, y
+    private static final int OP_PLAYER_BULLET = 2;    // x, y, 尺寸
+    private static final int OP_ENEMY_BULLET = 3;     // x, y, 尺寸
+    private static final int OP_EXPLOSION = 4;        // 中心 x, 中心 y, 帧号
+    private static final int OP_INVINCIBLE_RING = 5;  // x, y, 宽, 高
+    private static final int STRIDE = 5;
+
+    private int[] ops = new int[STRIDE * 256];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void sprite(int spriteId, int x, int y) {
+        add(OP_SPRITE, spriteId, x, y, 0);
+    }
+
+    public void playerBullet(int x, int y, int bulletSize) {
+        add(OP_PLAYER_BULLET, x, y, bulletSize, 0);
+    }
+
+    public void enemyBullet(int x, int y, int bulletSize) {
+        add(OP_ENEMY_BULLET, x, y, bulletSize, 0);
+    }
+
+    public void explosion(int centerX, int centerY, int frame) {
+        add(OP_EXPLOSION, centerX, centerY, frame, 0);
+    }
+
+    public void invincibleRing(int x, int y, int width, int height) {
+        add(OP_INVINCIBLE_RING, x, y, width, height);
+    }
+
+    private void add(int op, int a, int b, int c, int d) {
+        int base = size * STRIDE;
+        if (base + STRIDE > ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+        }
+        ops[base] = op;
+        ops[base + 1] = a;
+        ops[base + 2] = b;
+        ops[base + 3] = c;
+        ops[base + 4] = d;
+        size++;
+    }
+
+    /**
+     * 按记录顺序绘制全部指令（不需要持有 worldLock）
+     */
+    public void draw(Graphics2D g2d) {
+        int[] o = ops;
+        int end = size * STRIDE;
+        for (int i = 0; i < end; i += STRIDE) {
+            switch (o[i]) {
+                case OP_SPRITE:
+                    ImageUtil.drawSprite(g2d, o[i + 1], o[i + 2], o[i + 3]);
+                    break;
+                case OP_PLAYER_BULLET:
+                    DrawUtil.drawBullet(g2d, o[i + 1], o[i + 2], o[i + 3]);
+                    break;
+                case OP_ENEMY_BULLET:
+                    DrawUtil.drawEnemyBullet(g2d, o[i + 1], o[i + 2], o[i + 3]);
+                    break;
+                case OP_EXPLOSION:
+                    DrawUtil.drawExplosionFrame(g2d, o[i + 1], o[i + 2], o[i + 3]);
+                    break;
+                case OP_INVINCIBLE_RING:
+                    DrawUtil.drawInvincibleRing(g2d, o[i + 1], o[i + 2], o[i + 3], o[i + 4]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
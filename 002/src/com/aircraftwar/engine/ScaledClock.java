@@ -0,0 +1,20 @@
+package com.aircraftwar.engine;
+
+/**
+ * 变速时钟：模拟时间按 scale 倍速流逝（2.0 = 两倍速，0.5 = 慢动作），同样支持暂停。
+ */
+public class ScaledClock extends RealTimeClock {
+    public ScaledClock(double scale) {
+        setScale(scale);
+    }
+
+    public synchronized void setScale(double scale) {
+        if (scale < 0) throw new IllegalArgumentException("scale must be >= 0: " + scale);
+        rebase();
+        this.rate = scale;
+    }
+
+    public synchronized double getScale() {
+        return rate;
+    }
+}
@@ -0,0 +1,179 @@
+package com.aircraftwar.engine;
+
+import java.util.Arrays;
+
+/**
+ * 均匀网格空间哈希（碰撞粗筛）：每 tick clear() → insert() 所有参与碰撞的包围盒 → build()，
+ * 之后只在查询框覆盖的格子内找候选。全部使用基本类型数组，预热后重建与查询不再分配内存。
+ *
+ * 包围盒约定与 java.awt.Rectangle 一致：left/top 包含，right/bottom 不包含（x + width）。
+ * 超出场地的坐标会被夹到边缘格子，查询同样夹取，因此结果仍然正确。
+ */
+public class SpatialHash {
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+
+    // 条目（按插入顺序编号，编号即 insert() 的返回值）
+    private int count = 0;
+    private int[] masks = new int[64];
+    private int[] lefts = new int[64];
+    private int[] tops = new int[64];
+    private int[] rights = new int[64];
+    private int[] bottoms = new int[64];
+
+    // 计数排序后的格子索引：cellStart[c]..cellStart[c+1] 为格子 c 内的条目编号
+    private final int[] cellStart;
+    private final int[] cellFill;
+    private int[] cellItems = new int[128];
+
+    // 查询去重：跨多个格子的条目只返回一次
+    private int[] queryStamp = new int[64];
+    private int stamp = 0;
+
+    public SpatialHash(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+        this.cols = Math.max(1, (worldWidth + this.cellSize - 1) / this.cellSize);
+        this.rows = Math.max(1, (worldHeight + this.cellSize - 1) / this.cellSize);
+        this.cellStart = new int[cols * rows + 1];
+        this.cellFill = new int[cols * rows];
+    }
+
+    /** 清空本 tick 的所有条目 */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * 插入一个包围盒，mask 为分类位（查询时按位过滤）。返回条目编号（从 0 递增）。
+     */
+    public int insert(int mask, int left, int top, int right, int bottom) {
+        if (count == masks.length) grow();
+        masks[count] = mask;
+        lefts[count] = left;
+        tops[count] = top;
+        rights[count] = right;
+        bottoms[count] = bottom;
+        return count++;
+    }
+
+    /** 把条目从后续查询中排除（例如子弹已命中） */
+    public void disable(int id) {
+        if (id >= 0 && id < count) masks[id] = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** 插入完毕后调用：按格子做一次计数排序 */
+    public void build() {
+        Arrays.fill(cellStart, 0);
+
+        // 1. 统计每个格子的条目数（写在 cellStart[c + 1]，便于原地求前缀和）
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int c0 = col(lefts[i]), c1 = col(rights[i] - 1);
+            int r0 = row(tops[i]), r1 = row(bottoms[i] - 1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * cols + c + 1]++;
+                    total++;
+                }
+            }
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        if (cellItems.length < total) cellItems = new int[Math.max(total, cellItems.length * 2)];
+
+        // 2. 回填条目编号（按插入顺序，格内保持编号递增）
+        System.arraycopy(cellStart, 0, cellFill, 0, cellFill.length);
+        for (int i = 0; i < count; i++) {
+            int c0 = col(lefts[i]), c1 = col(rights[i] - 1);
+            int r0 = row(tops[i]), r1 = row(bottoms[i] - 1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[cellFill[r * cols + c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回与查询框重叠、且分类命中 mask 的最小条目编号；没有则返回 -1。
+     * 编号即插入顺序，因此结果与“按插入顺序逐个检测取第一个”一致。
+     */
+    public int queryFirst(int mask, int left, int top, int right, int bottom) {
+        int best = -1;
+        int c0 = col(left), c1 = col(right - 1);
+        int r0 = row(top), r1 = row(bottom - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int id = cellItems[k];
+                    if (best != -1 && id >= best) break; // 格内编号递增，后面的不可能更小
+                    if ((masks[id] & mask) != 0 && overlaps(id, left, top, right, bottom)) {
+                        best = id;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 收集所有与查询框重叠、分类命中 mask 的条目编号到 out（调用方持有），返回数量。
+     * out 容量不足时多余结果被丢弃。
+     */
+    public int query(int mask, int left, int top, int right, int bottom, int[] out) {
+        if (queryStamp.length < masks.length) queryStamp = Arrays.copyOf(queryStamp, masks.length);
+        if (++stamp == 0) {
+            Arrays.fill(queryStamp, 0);
+            stamp = 1;
+        }
+
+        int found = 0;
+        int c0 = col(left), c1 = col(right - 1);
+        int r0 = row(top), r1 = row(bottom - 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int id = cellItems[k];
+                    if (queryStamp[id] == stamp) continue;
+                    queryStamp[id] = stamp;
+                    if ((masks[id] & mask) != 0 && overlaps(id, left, top, right, bottom) && found < out.length) {
+                        out[found++] = id;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean overlaps(int id, int left, int top, int right, int bottom) {
+        return lefts[id] < right && left < rights[id] && tops[id] < bottom && top < bottoms[id];
+    }
+
+    private int col(int x) {
+        int c = Math.floorDiv(x, cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(int y) {
+        int r = Math.floorDiv(y, cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    private void grow() {
+        int n = masks.length * 2;
+        masks = Arrays.copyOf(masks, n);
+        lefts = Arrays.copyOf(lefts, n);
+        tops = Arrays.copyOf(tops, n);
+        rights = Arrays.copyOf(rights, n);
+        bottoms = Arrays.copyOf(bottoms, n);
+    }
+}
@@ -1,5 +1,9 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.GameClock;
+import com.aircraftwar.engine.Interpolation;
+import com.aircraftwar.engine.RenderList;
+
 import java.awt.*;
 
 /**
@@ -13,6 +17,9 @@ public abstract class Aircraft {
     protected int width;      // 宽度
     protected int height;     // 高度
     protected boolean alive = true; // 是否存活
+    protected int prevX;      // 上一 tick 的X坐标（渲染插值用）
+    protected int prevY;      // 上一 tick 的Y坐标（渲染插值用）
+    protected GameClock clock = GameClock.SYSTEM; // 计时用时钟（由 Wave/GameSimulation 注入）
 
     // 构造方法
     public Aircraft(int x, int y, int speed, int hp, int width, int height) {
@@ -22,8 +29,20 @@ public abstract class Aircraft {
         this.hp = hp;
         this.width = width;
         this.height = height;
+        this.prevX = x;
+        this.prevY = y;
+    }
+
+    // 每个 tick 移动前调用：记录上一 tick 的坐标
+    public void savePrevPosition() {
+        prevX = x;
+        prevY = y;
     }
 
+    // 渲染坐标：在上一 tick 与当前 tick 之间插值
+    public int getRenderX() { return Interpolation.lerp(prevX, x); }
+    public int getRenderY() { return Interpolation.lerp(prevY, y); }
+
     // 抽象方法：移动（所有子类必须实现）
     public abstract void move();
 
@@ -39,10 +58,24 @@ public abstract class Aircraft {
     // 死亡回调（子类可重写）
     public void die() {}
 
-    // 绘制方法（子类实现）
+    // 直接绘制（子类实现；游戏画面走 capture()，这里只保留给直接拿 Graphics 绘制的调用方）
     public abstract void draw(Graphics g);
 
+    /**
+     * 把本帧要画的内容记录到绘制指令列表（坐标已按插值计算），锁外再统一绘制；
+     * 游戏画面只经由本方法绘制，内容应与 draw() 一致
+     */
+    public abstract void capture(RenderList list);
+
+    /**
+     * 注入游戏时钟（创建后立即调用）；子类如有基于时间的初始值应在此重新对齐
+     */
+    public void setClock(GameClock clock) {
+        this.clock = (clock == null) ? GameClock.SYSTEM : clock;
+    }
+
     // Getter & Setter
+    public GameClock getClock() { return clock; }
     public boolean isAlive() { return alive; }
     public int getX() { return x; }
     public int getY() { return y; }
@@ -50,7 +83,20 @@ public abstract class Aircraft {
     public void setHp(int hp) { this.hp = hp; }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
+
+    /**
+     * 兼容旧调用方：由 fillCollisionBox() 换算，每次新建 Rectangle
+     */
     public Rectangle getCollisionRect() {
-        return new Rectangle(x, y, width, height);
+        CollisionBox box = fillCollisionBox(new CollisionBox());
+        return new Rectangle(box.left, box.top, box.right - box.left, box.bottom - box.top);
+    }
+
+    /**
+     * 把碰撞包围盒写入调用方持有的 box（不分配对象）。
+     * 默认是整个飞机矩形；需要自定义判定框的子类重写本方法（getCollisionRect() 会随之一致）
+     */
+    public CollisionBox fillCollisionBox(CollisionBox box) {
+        return box.setRect(x, y, width, height);
     }
 }
\ No newline at end of file
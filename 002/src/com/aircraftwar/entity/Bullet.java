@@ -1,5 +1,7 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.Interpolation;
+import com.aircraftwar.engine.RenderList;
 import com.aircraftwar.util.DrawUtil;
 
 import java.awt.*;
@@ -10,10 +12,14 @@ import java.awt.*;
 public class Bullet implements IBullet {
     private int x;
     private int y;
-    private int speed = 8; // 子弹速度（向上）
+    private int prevY; // 上一 tick 的Y坐标（渲染插值用）
+    public static final int DEFAULT_SPEED = 8;  // 默认速度（ProjectileFactory 的内置定义同样使用）
+    public static final int DEFAULT_DAMAGE = 1;
+
+    private int speed = DEFAULT_SPEED; // 子弹速度（向上）
     private int size = 6;  // 子弹尺寸（确保可见）
     private boolean alive = true; // 存活状态
-    private int damage = 1;
+    private int damage = DEFAULT_DAMAGE;
     private final String type = "player_basic";
     private final int ownerId = 0;
 
@@ -22,10 +28,12 @@ public class Bullet implements IBullet {
         // 修正：子弹X坐标居中，避免偏移出屏幕
         this.x = playerX + (playerWidth / 2) - (size / 2);
         this.y = playerY - size; // 子弹在玩家飞机顶部生成
+        this.prevY = this.y;
     }
 
     // 子弹移动（向上）
     public void move() {
+        prevY = y;
         y -= speed;
         // 飞出屏幕顶部则标记为死亡
         if (y < 0) {
@@ -54,7 +62,14 @@ public class Bullet implements IBullet {
     // 绘制子弹（核心：补充绘制逻辑，黄色圆形子弹）
     public void draw(Graphics g) {
         if (alive) {
-            DrawUtil.drawBullet((Graphics2D) g, x, y, size);
+            DrawUtil.drawBullet((Graphics2D) g, x, Interpolation.lerp(prevY, y), size);
+        }
+    }
+
+    @Override
+    public void capture(RenderList list) {
+        if (alive) {
+            list.playerBullet(x, Interpolation.lerp(prevY, y), size);
         }
     }
 
@@ -76,6 +91,11 @@ public class Bullet implements IBullet {
         return new Rectangle(x, y, size, size);
     }
 
+    @Override
+    public CollisionBox fillCollisionBox(CollisionBox box) {
+        return box.setRect(x, y, size, size);
+    }
+
     @Override
     public void setAlive(boolean alive) {
         this.alive = alive;
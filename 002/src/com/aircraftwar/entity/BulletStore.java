@@ -0,0 +1,260 @@
+package com.aircraftwar.entity;
+
+import com.aircraftwar.engine.Interpolation;
+import com.aircraftwar.engine.RenderList;
+import com.aircraftwar.util.DrawUtil;
+import com.aircraftwar.util.GameConfig;
+
+import java.awt.*;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 子弹存储（结构数组）：坐标、速度、伤害、弹种、存活标记都放在基本类型数组里，
+ * 发射不分配对象，update() 在一个紧凑循环里推进全部子弹，失效子弹用“末尾交换”方式回收槽位。
+ *
+ * 兼容：asList() 以 IBullet 视图暴露当前子弹；视图按槽位下标访问，下一次 update() 压缩后即失效。
+ */
+public class BulletStore {
+    // 内置弹种（与 ProjectileFactory 注册名一致）
+    public static final int TYPE_PLAYER_BASIC = 0;
+    public static final int TYPE_ENEMY_BASIC = 1;
+    private static final String[] TYPE_NAMES = {"player_basic", "enemy_basic"};
+
+    // 子弹尺寸（与 Bullet / EnemyBullet 一致）
+    public static final int BULLET_SIZE = 6;
+
+    private int count = 0;
+    private float[] xs;
+    private float[] ys;
+    private float[] vxs;
+    private float[] vys;
+    private int[] damages;
+    private int[] owners;
+    private byte[] types;
+    private boolean[] alive;
+
+    private final List<IBullet> listView = new ListView();
+
+    public BulletStore() {
+        this(64);
+    }
+
+    public BulletStore(int initialCapacity) {
+        int n = Math.max(8, initialCapacity);
+        xs = new float[n];
+        ys = new float[n];
+        vxs = new float[n];
+        vys = new float[n];
+        damages = new int[n];
+        owners = new int[n];
+        types = new byte[n];
+        alive = new boolean[n];
+    }
+
+    /**
+     * 发射一颗子弹，返回槽位下标。容量不足时数组翻倍（仅扩容时分配）。
+     */
+    public int spawn(int type, float x, float y, float vx, float vy, int damage, int ownerId) {
+        if (count == xs.length) grow();
+        int i = count++;
+        xs[i] = x;
+        ys[i] = y;
+        vxs[i] = vx;
+        vys[i] = vy;
+        damages[i] = damage;
+        owners[i] = ownerId;
+        types[i] = (byte) type;
+        alive[i] = true;
+        return i;
+    }
+
+    /**
+     * 推进全部子弹一个 tick：移动 → 沿运动方向飞出场地则失效 → 压缩回收失效槽位。
+     */
+    public void update() {
+        int w = GameConfig.SCREEN_WIDTH;
+        int h = GameConfig.SCREEN_HEIGHT;
+        for (int i = 0; i < count; i++) {
+            if (!alive[i]) continue;
+            float vx = vxs[i], vy = vys[i];
+            float x = xs[i] += vx;
+            float y = ys[i] += vy;
+            // 只按运动方向判定越界：屏幕外生成、正在飞入的子弹不会被误删
+            if ((vy < 0 && y < 0) || (vy > 0 && y > h)
+                    || (vx < 0 && x < -BULLET_SIZE) || (vx > 0 && x > w)) {
+                alive[i] = false;
+            }
+        }
+        compact();
+    }
+
+    /** 回收失效槽位：用末尾元素填洞，O(n) 且不分配 */
+    public void compact() {
+        int i = 0;
+        while (i < count) {
+            if (alive[i]) {
+                i++;
+                continue;
+            }
+            int last = --count;
+            if (i != last) {
+                xs[i] = xs[last];
+                ys[i] = ys[last];
+                vxs[i] = vxs[last];
+                vys[i] = vys[last];
+                damages[i] = damages[last];
+                owners[i] = owners[last];
+                types[i] = types[last];
+                alive[i] = alive[last];
+            }
+        }
+    }
+
+    /** 绘制全部存活子弹（按插值系数回退到上一 tick 与当前 tick 之间） */
+    public void render(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        double back = 1.0 - Interpolation.getAlpha();
+        for (int i = 0; i < count; i++) {
+            if (alive[i]) drawSlot(g2d, i, back);
+        }
+    }
+
+    private void drawSlot(Graphics2D g2d, int i, double back) {
+        int rx = (int) Math.round(xs[i] - vxs[i] * back);
+        int ry = (int) Math.round(ys[i] - vys[i] * back);
+        if (types[i] == TYPE_PLAYER_BASIC) {
+            DrawUtil.drawBullet(g2d, rx, ry, BULLET_SIZE);
+        } else {
+            DrawUtil.drawEnemyBullet(g2d, rx, ry, BULLET_SIZE);
+        }
+    }
+
+    /** 记录全部存活子弹的绘制指令（插值方式同 render） */
+    public void capture(RenderList list) {
+        double back = 1.0 - Interpolation.getAlpha();
+        for (int i = 0; i < count; i++) {
+            if (alive[i]) captureSlot(list, i, back);
+        }
+    }
+
+    private void captureSlot(RenderList list, int i, double back) {
+        int rx = (int) Math.round(xs[i] - vxs[i] * back);
+        int ry = (int) Math.round(ys[i] - vys[i] * back);
+        if (types[i] == TYPE_PLAYER_BASIC) {
+            list.playerBullet(rx, ry, BULLET_SIZE);
+        } else {
+            list.enemyBullet(rx, ry, BULLET_SIZE);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // ===== 槽位访问（碰撞检测等热路径直接读基本类型） =====
+    public int size() { return count; }
+    public boolean isAlive(int i) { return alive[i]; }
+    public void kill(int i) { alive[i] = false; }
+    public int getX(int i) { return (int) xs[i]; }
+    public int getY(int i) { return (int) ys[i]; }
+    public int getDamage(int i) { return damages[i]; }
+    public int getType(int i) { return types[i]; }
+    public int getOwnerId(int i) { return owners[i]; }
+    public CollisionBox fillCollisionBox(int i, CollisionBox box) {
+        return box.setRect((int) xs[i], (int) ys[i], BULLET_SIZE, BULLET_SIZE);
+    }
+
+    /**
+     * IBullet 兼容视图（只读列表：增删请走 spawn/kill）。
+     * 每次 get() 会创建一个轻量视图对象，热路径请直接使用槽位访问方法。
+     */
+    public List<IBullet> asList() {
+        return listView;
+    }
+
+    private void grow() {
+        int n = xs.length * 2;
+        xs = Arrays.copyOf(xs, n);
+        ys = Arrays.copyOf(ys, n);
+        vxs = Arrays.copyOf(vxs, n);
+        vys = Arrays.copyOf(vys, n);
+        damages = Arrays.copyOf(damages, n);
+        owners = Arrays.copyOf(owners, n);
+        types = Arrays.copyOf(types, n);
+        alive = Arrays.copyOf(alive, n);
+    }
+
+    private class ListView extends AbstractList<IBullet> {
+        @Override
+        public IBullet get(int index) {
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException("index=" + index + ", size=" + count);
+            return new SlotView(index);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    // 单个槽位的 IBullet 视图（移动由 BulletStore.update() 统一推进，这里的 update() 不做事）
+    private class SlotView implements IBullet {
+        private final int slot;
+
+        SlotView(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public void render(Graphics g) {
+            if (alive[slot]) drawSlot((Graphics2D) g, slot, 1.0 - Interpolation.getAlpha());
+        }
+
+        @Override
+        public void capture(RenderList list) {
+            if (alive[slot]) captureSlot(list, slot, 1.0 - Interpolation.getAlpha());
+        }
+
+        @Override
+        public Rectangle getCollisionRect() {
+            return new Rectangle((int) xs[slot], (int) ys[slot], BULLET_SIZE, BULLET_SIZE);
+        }
+
+        @Override
+        public CollisionBox fillCollisionBox(CollisionBox box) {
+            return box.setRect((int) xs[slot], (int) ys[slot], BULLET_SIZE, BULLET_SIZE);
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive[slot];
+        }
+
+        @Override
+        public void setAlive(boolean value) {
+            alive[slot] = value;
+        }
+
+        @Override
+        public int getDamage() {
+            return damages[slot];
+        }
+
+        @Override
+        public String getType() {
+            int t = types[slot];
+            return (t >= 0 && t < TYPE_NAMES.length) ? TYPE_NAMES[t] : "unknown";
+        }
+
+        @Override
+        public int getOwnerId() {
+            return owners[slot];
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.aircraftwar.entity;
+
+/**
+ * 可复用的碰撞包围盒（调用方持有，逐帧覆写），用于替代每次 new Rectangle。
+ * 约定与 java.awt.Rectangle 一致：left/top 包含，right/bottom 不包含。
+ */
+public final class CollisionBox {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public CollisionBox set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        return this;
+    }
+
+    // 按 x/y/宽/高 设置
+    public CollisionBox setRect(int x, int y, int width, int height) {
+        return set(x, y, x + width, y + height);
+    }
+
+    public boolean overlaps(int otherLeft, int otherTop, int otherRight, int otherBottom) {
+        return left < otherRight && otherLeft < right && top < otherBottom && otherTop < bottom;
+    }
+
+    public boolean overlaps(CollisionBox other) {
+        return overlaps(other.left, other.top, other.right, other.bottom);
+    }
+}
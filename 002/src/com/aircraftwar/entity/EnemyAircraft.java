@@ -1,34 +1,37 @@
 package com.aircraftwar.entity;
 
 // 删除未使用的 DrawUtil/Iterator/重复导入等
+import com.aircraftwar.engine.RenderList;
 import com.aircraftwar.util.ImageUtil;
-import java.awt.image.BufferedImage;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 import com.aircraftwar.factory.ProjectileFactory;
 
 /**
  * 敌机类（适配小队初始位置 + 修复waveNumber未定义问题 + 替换为图片绘制）
  */
 public class EnemyAircraft extends Aircraft {
-    private static final Random random = new Random();
     // 敌机尺寸（保持原有尺寸，适配图片）
-    private static final int ENEMY_WIDTH = 30;
-    private static final int ENEMY_HEIGHT = 40;
+    public static final int ENEMY_WIDTH = 30;
+    public static final int ENEMY_HEIGHT = 40;
 
-    // ========== 新增：敌机图片对象 ==========
-    private BufferedImage enemyImage;
+    // ========== 新增：敌机图片（图集中按游戏内尺寸预缩放的精灵） ==========
+    private int enemySprite;
 
     // 所属波次（关键修复）
     private int waveNumber;
 
-    // 子弹相关
+    // 子弹相关：bullets 为旧式对象列表（子类/未接入弹幕池时使用），projectilePool 由 Wave 注入
     private List<IBullet> bullets;
+    private BulletStore projectilePool;
     private long lastShootTime;
     private long shootInterval;
+    // 射击随机流（由 EnemySquad/Wave 注入会话的 SHOOTING 流；未注入时用独立的非种子流）
+    private SplittableRandom shootRandom = new SplittableRandom();
 
     // 移动相关
     private EnemyMoveType moveType;
@@ -49,8 +52,8 @@ public class EnemyAircraft extends Aircraft {
 
         // 加载敌机图片 + 日志
         System.out.println("[EnemyAircraft] 开始加载 Enemy1.png");
-        this.enemyImage = ImageUtil.loadImage("Enemy1.png");
-        if (this.enemyImage == null) {
+        this.enemySprite = ImageUtil.registerSprite("Enemy1.png", ENEMY_WIDTH, ENEMY_HEIGHT);
+        if (ImageUtil.getSprite(this.enemySprite) == null) {
             System.out.println("[EnemyAircraft] ❌ Enemy1.png 加载失败！");
         } else {
             System.out.println("[EnemyAircraft] ✅ Enemy1.png 加载成功！");
@@ -66,7 +69,7 @@ public class EnemyAircraft extends Aircraft {
         double mult = com.aircraftwar.entity.DifficultyProfile.enemyShootIntervalMultiplier(this.difficulty);
         this.shootInterval = (long) Math.max(200, Math.round(baseInterval * mult));
 
-        this.lastShootTime = System.currentTimeMillis();
+        this.lastShootTime = clock.nowMillis();
 
         // 移动初始化（原有逻辑）
         this.moveType = moveType;
@@ -82,8 +85,8 @@ public class EnemyAircraft extends Aircraft {
     // 兼容旧构造方法（避免报错）
     public EnemyAircraft(int panelWidth, int panelHeight, EnemyMoveType moveType, int waveNumber) {
         this(panelWidth, panelHeight, moveType, waveNumber,
-                random.nextInt(Math.max(1, panelWidth - ENEMY_WIDTH)),
-                random.nextInt(Math.max(1, 150)) + 20,
+                ThreadLocalRandom.current().nextInt(Math.max(1, panelWidth - ENEMY_WIDTH)),
+                ThreadLocalRandom.current().nextInt(Math.max(1, 150)) + 20,
                 com.aircraftwar.entity.DifficultyProfile.DifficultyKey.NEWBIE);
     }
 
@@ -105,12 +108,15 @@ public class EnemyAircraft extends Aircraft {
 
     // 敌机发射子弹（原有逻辑完全保留）
     private void shootBullet() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.nowMillis();
         double shootProb = Math.min(0.1 * this.waveNumber, 0.8);
-        if (currentTime - lastShootTime >= shootInterval && random.nextDouble() < shootProb) {
+        if (currentTime - lastShootTime >= shootInterval && shootRandom.nextDouble() < shootProb) {
             // 子弹位置：敌机底部中间
-            IBullet b = ProjectileFactory.createEnemyBullet(x + width/2 - 3, y + height);
-            bullets.add(b);
+            // 弹幕池优先；弹种被重新注册为对象形式时 spawn 返回 -1，改走对象列表（由波次弹幕池接管）
+            if (projectilePool == null || ProjectileFactory.spawnEnemyBullet(projectilePool, x + width/2 - 3, y + height) < 0) {
+                IBullet b = ProjectileFactory.createEnemyBullet(x + width/2 - 3, y + height);
+                bullets.add(b);
+            }
             lastShootTime = currentTime;
         }
     }
@@ -125,29 +131,54 @@ public class EnemyAircraft extends Aircraft {
         }
     }
 
-    // 绘制敌机+子弹（核心修改：替换为图片绘制）
+    /**
+     * 直接绘制敌机+子弹（核心修改：替换为图片绘制）。游戏画面已改为经 capture() 记录绘制指令，
+     * 本方法不再被渲染线程调用；声明为 final，子类要换外观须重写 capture()，避免重写 draw() 后悄悄失效。
+     */
     @Override
-    public void draw(Graphics g) {
+    public final void draw(Graphics g) {
         // 敌机本体：只有存活时绘制
         if (isAlive()) {
             Graphics2D g2d = (Graphics2D) g;
-            ImageUtil.drawImage(g2d, enemyImage, x, y, ENEMY_WIDTH, ENEMY_HEIGHT);
+            ImageUtil.drawSprite(g2d, enemySprite, getRenderX(), getRenderY());
         }
 
-        // 子弹：不依赖敌机存活（敌机被击败后，已发射子弹仍应继续飞行直到越界）
+        // 子弹：不依赖敌机存活（接入弹幕池后由 Wave 统一绘制，这里只剩旧式列表里的子弹）
         for (IBullet bullet : bullets) {
             bullet.render(g);
         }
     }
 
+    /**
+     * 与 draw() 相同的内容，记录为绘制指令（渲染线程在 worldLock 内调用）。
+     * 游戏画面只经由本方法绘制：外观不同于 Enemy1 精灵的子类重写本方法。
+     */
     @Override
-    public void die() {
-        // 播放爆炸音效（原有逻辑保留）
-        com.aircraftwar.util.AudioUtil.playExplodeSound();
+    public void capture(RenderList list) {
+        if (isAlive()) {
+            list.sprite(enemySprite, getRenderX(), getRenderY());
+        }
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).capture(list);
+        }
+    }
+
+    @Override
+    public void setClock(com.aircraftwar.engine.GameClock clock) {
+        super.setClock(clock);
+        // 射击间隔从新时钟的当前时间开始计
+        this.lastShootTime = this.clock.nowMillis();
+    }
+
+    // 随机数服务（与时钟一起注入）：射击判定取 SHOOTING 流
+    public void setRandom(com.aircraftwar.engine.GameRandom random) {
+        if (random != null) this.shootRandom = random.stream(com.aircraftwar.engine.GameRandom.Stream.SHOOTING);
     }
 
     // Getter & Setter（原有逻辑完全保留）
     public List<IBullet> getBullets() { return bullets; }
+    // 波次弹幕池：设置后本机发射的子弹直接进入池中，不再挂在敌机对象上
+    public void setProjectilePool(BulletStore projectilePool) { this.projectilePool = projectilePool; }
     public boolean isEscaping() { return isEscaping; }
     public void setEscaping(boolean escaping) { isEscaping = escaping; }
     public void setX(int x) { this.x = x; }
@@ -1,5 +1,7 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.Interpolation;
+import com.aircraftwar.engine.RenderList;
 import com.aircraftwar.util.DrawUtil;
 import com.aircraftwar.util.GameConfig;
 
@@ -11,16 +13,21 @@ import java.awt.*;
 public class EnemyBullet implements IBullet {
     private int x;
     private int y;
+    private int prevY; // 上一 tick 的Y坐标（渲染插值用）
+    public static final int DEFAULT_SPEED = 5;  // 默认速度（ProjectileFactory 的内置定义同样使用）
+    public static final int DEFAULT_DAMAGE = 1;
+
     private int size = 6; // 子弹尺寸
-    private int speed = 5; // 子弹速度（向下）
+    private int speed = DEFAULT_SPEED; // 子弹速度（向下）
     private boolean alive; // 是否存活
-    private int damage = 1;
+    private int damage = DEFAULT_DAMAGE;
     private final String type = "enemy_basic";
     private final int ownerId = -1;
 
     public EnemyBullet(int x, int y) {
         this.x = x;
         this.y = y;
+        this.prevY = y;
         this.alive = true;
     }
 
@@ -32,6 +39,7 @@ public class EnemyBullet implements IBullet {
 
     // 移动（向下）
     public void move() {
+        prevY = y;
         y += speed;
         // 飞出屏幕则失效
         if (y > GameConfig.SCREEN_HEIGHT) {
@@ -48,7 +56,14 @@ public class EnemyBullet implements IBullet {
     // 绘制（红色子弹，区分玩家子弹）
     public void draw(Graphics g) {
         if (alive) {
-            DrawUtil.drawEnemyBullet((Graphics2D) g, x, y, size);
+            DrawUtil.drawEnemyBullet((Graphics2D) g, x, Interpolation.lerp(prevY, y), size);
+        }
+    }
+
+    @Override
+    public void capture(RenderList list) {
+        if (alive) {
+            list.enemyBullet(x, Interpolation.lerp(prevY, y), size);
         }
     }
 
@@ -58,6 +73,11 @@ public class EnemyBullet implements IBullet {
         return new Rectangle(x, y, size, size);
     }
 
+    @Override
+    public CollisionBox fillCollisionBox(CollisionBox box) {
+        return box.setRect(x, y, size, size);
+    }
+
     // Getter & Setter
     @Override
     public boolean isAlive() {
@@ -0,0 +1,72 @@
+package com.aircraftwar.entity;
+
+import com.aircraftwar.engine.RenderList;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 波次级敌方弹幕池：本波所有敌机（小队/Bee）的子弹集中存放，生命周期与发射者无关，
+ * 敌机死亡后对象可立即释放，残留子弹照常飞行直到越界。
+ *
+ * 内置弹种直接写入 BulletStore；子类自行创建的 IBullet 对象（如 ProjectileFactory 注册的自定义弹种）
+ * 通过 adoptFrom() 从敌机的旧列表里接管过来，一起更新与绘制。
+ */
+public class EnemyProjectilePool {
+    private final BulletStore store = new BulletStore(256);
+    private final List<IBullet> adopted = new ArrayList<>();
+
+    /** 接管敌机旧子弹列表里的对象（接管后清空该列表） */
+    public void adoptFrom(EnemyAircraft enemy) {
+        if (enemy == null) return;
+        List<IBullet> bullets = enemy.getBullets();
+        if (bullets == null || bullets.isEmpty()) return;
+        adopted.addAll(bullets);
+        bullets.clear();
+    }
+
+    /** 推进全部敌方子弹一个 tick */
+    public void update() {
+        store.update();
+
+        // 对象子弹：先移除失效，再移动（与 EnemyAircraft.updateBullets 顺序一致）
+        Iterator<IBullet> iterator = adopted.iterator();
+        while (iterator.hasNext()) {
+            IBullet bullet = iterator.next();
+            if (!bullet.isAlive()) {
+                iterator.remove();
+                continue;
+            }
+            bullet.update();
+        }
+    }
+
+    public void render(Graphics g) {
+        store.render(g);
+        for (IBullet bullet : adopted) {
+            bullet.render(g);
+        }
+    }
+
+    public void capture(RenderList list) {
+        store.capture(list);
+        for (int i = 0; i < adopted.size(); i++) {
+            adopted.get(i).capture(list);
+        }
+    }
+
+    public void clear() {
+        store.clear();
+        adopted.clear();
+    }
+
+    public int size() {
+        return store.size() + adopted.size();
+    }
+
+    // Getter
+    public BulletStore getStore() { return store; }
+    public List<IBullet> getAdopted() { return adopted; }
+}
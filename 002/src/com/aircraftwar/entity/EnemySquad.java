@@ -1,5 +1,7 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.GameClock;
+import com.aircraftwar.engine.GameRandom;
 import com.aircraftwar.util.GameConfig;
 
 import java.awt.*;
@@ -7,7 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * 敌机小队类（参考雷霆战机编队逻辑，改为分阶段智能行为）
@@ -36,6 +38,17 @@ public class EnemySquad {
     // ✅ 难度（由 Wave -> EnemySquad 传入，用于老手/不可能等参数调整）
     private final com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty;
 
+    // 时钟（由 Wave 注入，小队与其敌机共用）
+    private final GameClock clock;
+
+    // 随机数（由 Wave 注入）：编队/巡航用 FORMATION 流，俯冲用 DIVE 流，敌机射击取 SHOOTING 流
+    private final GameRandom gameRandom;
+    private final SplittableRandom random;
+    private final SplittableRandom diveRandom;
+
+    // 波次弹幕池（由 Wave 注入，小队敌机发射的子弹直接写入）
+    private BulletStore projectilePool;
+
     // 新增：标记敌机对象是否已真正创建（lazy spawn）
     private boolean enemiesCreated = false;
 
@@ -52,13 +65,11 @@ public class EnemySquad {
     private final List<Point> formationOffsets = new ArrayList<>();
 
     // 每个小队的相位偏移：让 sin/cos 轨迹在不同小队间错开，避免“同步抽搐”
-    private final double phaseOffset = random.nextDouble() * Math.PI * 2;
+    private final double phaseOffset;
 
     // 运动参数（适配不同轨迹）
     // private int moveDirection = 1;      // 已废弃：改用 velX/velY 驱动
 
-    private static final Random random = new Random();
-
     // 新增：分阶段状态与每架敌机俯冲状态
     private Phase phase = Phase.ENTER;
     private long phaseStartTime;
@@ -156,6 +167,20 @@ public class EnemySquad {
     }
 
     public EnemySquad(int squadId, int waveNumber, long spawnDelay, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty) {
+        this(squadId, waveNumber, spawnDelay, difficulty, GameClock.SYSTEM);
+    }
+
+    public EnemySquad(int squadId, int waveNumber, long spawnDelay, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty, GameClock clock) {
+        this(squadId, waveNumber, spawnDelay, difficulty, clock, GameRandom.unseeded());
+    }
+
+    // 带时钟 + 随机数服务（Wave 注入，同一种子下小队行为可复现）
+    public EnemySquad(int squadId, int waveNumber, long spawnDelay, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty, GameClock clock, GameRandom gameRandom) {
+        this.clock = (clock == null) ? GameClock.SYSTEM : clock;
+        this.gameRandom = (gameRandom == null) ? GameRandom.unseeded() : gameRandom;
+        this.random = this.gameRandom.stream(GameRandom.Stream.FORMATION);
+        this.diveRandom = this.gameRandom.stream(GameRandom.Stream.DIVE);
+        this.phaseOffset = random.nextDouble() * Math.PI * 2;
         this.squadId = squadId;
         this.waveNumber = waveNumber;
         this.spawnDelay = spawnDelay;
@@ -225,7 +250,7 @@ public class EnemySquad {
         diveMap.clear();
 
         this.phase = Phase.ENTER;
-        this.phaseStartTime = System.currentTimeMillis();
+        this.phaseStartTime = clock.nowMillis();
 
         // 初始化速度向量：给每队一个不同的初始方向，避免同步抽搐
         double a = random.nextDouble() * Math.PI * 2;
@@ -234,6 +259,16 @@ public class EnemySquad {
         this.velY = Math.sin(a) * (baseSp * 0.35);
     }
 
+    /**
+     * 指定编队与运动类型（替代构造时的随机选择，须在 spawn 之前调用）。包内可见：供 SquadBenchRunner 逐一覆盖各组合。
+     */
+    void setLayout(Formation formation, EnemyMoveType moveType) {
+        if (enemiesCreated) throw new IllegalStateException("小队已生成，不能再修改编队");
+        this.formation = formation;
+        this.moveType = moveType;
+        generateFormationOffsetsOnly();
+    }
+
     // 仅生成编队槽位偏移，不创建敌机对象
     private void generateFormationOffsetsOnly() {
         // spacing 代表“敌机之间的视觉距离”，与碰撞框/图片大小要留余量
@@ -350,15 +385,18 @@ public class EnemySquad {
                      GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT, moveType, waveNumber, x, y, this.difficulty
              );
          }
+         enemy.setClock(clock);
+         enemy.setRandom(gameRandom);
+         enemy.setProjectilePool(projectilePool);
          enemies.add(enemy);
     }
 
     // 检查小队是否到生成时间
     public void checkSpawn(long waveStartTime) {
-        if (!isSpawned && System.currentTimeMillis() - waveStartTime >= spawnDelay) {
+        if (!isSpawned && clock.nowMillis() - waveStartTime >= spawnDelay) {
             isSpawned = true;
             phase = Phase.ENTER;
-            phaseStartTime = System.currentTimeMillis();
+            phaseStartTime = clock.nowMillis();
 
             // 每次真正 spawn 时重新随机一个 X（在可活动区域内，左右留 boundary）
             this.baseX = boundary + random.nextInt(Math.max(1, GameConfig.SCREEN_WIDTH - boundary * 2));
@@ -444,6 +482,8 @@ public class EnemySquad {
             if (!enemy.isAlive()) {
                 continue;
             }
+            // 记录上一 tick 坐标，供渲染插值
+            enemy.savePrevPosition();
 
             Point baseOffset = slotIndex < formationOffsets.size() ? formationOffsets.get(slotIndex) : new Point(0, 0);
             int formationX = baseX + baseOffset.x;
@@ -470,7 +510,7 @@ public class EnemySquad {
                     if (d.progress > 1.0) d.progress = 1.0;
                 } else {
                     // 在 hold 之后才开始累计回位进度
-                    long now = System.currentTimeMillis();
+                    long now = clock.nowMillis();
                     if (now >= d.holdUntilMs) {
                         d.returnProgress += d.returnStep;
                         if (d.returnProgress > 1.0) d.returnProgress = 1.0;
@@ -505,7 +545,7 @@ public class EnemySquad {
                     if (d.progress >= 1.0) {
                         // 到底急停：停留一小会儿再开始回位（更像“刹车”）
                         d.returning = true;
-                        d.holdUntilMs = System.currentTimeMillis() + d.holdMs;
+                        d.holdUntilMs = clock.nowMillis() + d.holdMs;
 
                         // 关键修复：冻结“俯冲结束时刻”的偏移，作为回位起点，避免 base 漂移造成瞬移
                         d.endOffsetX = offsetX;
@@ -515,7 +555,7 @@ public class EnemySquad {
                         d.returnProgress = 0.0;
                     }
                 } else {
-                    long now = System.currentTimeMillis();
+                    long now = clock.nowMillis();
                     // 急停停留期：固定在俯冲底部（使用冻结点更稳）
                     if (now < d.holdUntilMs) {
                         offsetX = d.endOffsetX;
@@ -564,13 +604,19 @@ public class EnemySquad {
         checkAllDead();
     }
 
-    // 更新小队敌机子弹
-    public void updateSquadBullets() {
+    // 收集小队敌机子弹到波次弹幕池：子弹在池中独立飞行，不再依赖敌机对象存活
+    public void collectBullets(EnemyProjectilePool pool) {
         if (!isSpawned) return;
 
-        // 注意：即便敌机已经死亡/小队全灭，也要继续更新其残留子弹，直到子弹自己飞出边界。
         for (EnemyAircraft enemy : enemies) {
-            enemy.updateBullets();
+            pool.adoptFrom(enemy);
+            if (enemy.isAlive()) enemy.updateBullets();
+        }
+
+        // 全灭后立即释放敌机对象（残留子弹已在池中）
+        if (isAllDead && !enemies.isEmpty()) {
+            enemies.clear();
+            diveMap.clear();
         }
     }
 
@@ -579,7 +625,7 @@ public class EnemySquad {
     // 目标：敌机从屏幕外进入 -> 上半区巡航 -> 偶尔俯冲/推进 -> 撤退
     // =====================
     private void updateBasePosition() {
-        long now = System.currentTimeMillis();
+        long now = clock.nowMillis();
         long elapsed = now - phaseStartTime;
 
         switch (phase) {
@@ -825,13 +871,13 @@ public class EnemySquad {
         int divers;
         if (impossible) {
             // 不可能：更常见的“双机/多机俯冲”
-            divers = (maxDivers <= 1) ? 1 : (2 + random.nextInt(maxDivers - 1));
+            divers = (maxDivers <= 1) ? 1 : (2 + diveRandom.nextInt(maxDivers - 1));
         } else {
-            divers = 1 + random.nextInt(maxDivers);
+            divers = 1 + diveRandom.nextInt(maxDivers);
         }
 
         for (int i = 0; i < divers; i++) {
-            EnemyAircraft e = alive.get(random.nextInt(alive.size()));
+            EnemyAircraft e = alive.get(diveRandom.nextInt(alive.size()));
             DiveInfo di = diveMap.get(e);
             if (di == null) {
                 di = new DiveInfo();
@@ -845,18 +891,18 @@ public class EnemySquad {
 
             // 更平滑的俯冲：步进更小一点，整体时间更长，视觉更像“曲线俯冲”
             if (impossible) {
-                di.progressStep = 0.020 + random.nextDouble() * 0.008; // 更慢一点（原 0.024~0.034）
+                di.progressStep = 0.020 + diveRandom.nextDouble() * 0.008; // 更慢一点（原 0.024~0.034）
             } else {
-                di.progressStep = 0.016 + random.nextDouble() * 0.006; // 更慢一点（原 0.020~0.027）
+                di.progressStep = 0.016 + diveRandom.nextDouble() * 0.006; // 更慢一点（原 0.020~0.027）
             }
             // 老手/不可能：俯冲速度倍率
             di.progressStep *= com.aircraftwar.entity.DifficultyProfile.diveSpeedMultiplier(this.difficulty);
 
             // 回位速度：单独控制（比下冲慢），避免“嗖一下回去”
             if (impossible) {
-                di.returnStep = 0.012 + random.nextDouble() * 0.004;
+                di.returnStep = 0.012 + diveRandom.nextDouble() * 0.004;
             } else {
-                di.returnStep = 0.010 + random.nextDouble() * 0.003;
+                di.returnStep = 0.010 + diveRandom.nextDouble() * 0.003;
             }
             di.returnStep *= Math.max(0.85, 1.0 / com.aircraftwar.entity.DifficultyProfile.diveSpeedMultiplier(this.difficulty));
 
@@ -865,20 +911,20 @@ public class EnemySquad {
             int baseCenterX = (int) Math.round(baseXf);
             int baseCenterY = (int) Math.round(baseYf);
 
-            int side = random.nextBoolean() ? 1 : -1;
+            int side = diveRandom.nextBoolean() ? 1 : -1;
             int lateral;
             if (impossible) {
-                lateral = (110 + random.nextInt(160)) * side; // 110~269
+                lateral = (110 + diveRandom.nextInt(160)) * side; // 110~269
             } else {
-                lateral = (70 + random.nextInt(120)) * side; // 70~189
+                lateral = (70 + diveRandom.nextInt(120)) * side; // 70~189
             }
             di.diveTargetX = Math.max(boundary, Math.min(panelWidth - boundary, baseCenterX + lateral));
 
             int depth;
             if (impossible) {
-                depth = 340 + random.nextInt(280); // 更深的向下推进
+                depth = 340 + diveRandom.nextInt(280); // 更深的向下推进
             } else {
-                depth = 260 + random.nextInt(200);
+                depth = 260 + diveRandom.nextInt(200);
             }
 
             int targetY = baseCenterY + depth;
@@ -900,18 +946,18 @@ public class EnemySquad {
             double midOy = (di.startOffsetY + endOy) * 0.5;
 
             // 弧线强度：随俯冲深度稍微变化
-            double lift = 28 + random.nextInt(22); // 28~49
+            double lift = 28 + diveRandom.nextInt(22); // 28~49
             if (impossible) lift += 10;
 
             // 横向弧线：让控制点向 lateral 方向再偏一点
             double lateralSign = (endOx >= di.startOffsetX) ? 1.0 : -1.0;
-            double ctrlBiasX = lateralSign * (18 + random.nextInt(22));
+            double ctrlBiasX = lateralSign * (18 + diveRandom.nextInt(22));
 
             di.ctrlOffsetX = midOx + ctrlBiasX;
             di.ctrlOffsetY = midOy - lift; // 向上抬，形成弧线（视觉更像俯冲曲线）
 
             di.arcLiftPx = lift;
-            di.arcSwayPx = (8 + random.nextInt(11)) * lateralSign; // 8~18px 的横摆
+            di.arcSwayPx = (8 + diveRandom.nextInt(11)) * lateralSign; // 8~18px 的横摆
         }
     }
 
@@ -922,6 +968,7 @@ public class EnemySquad {
         return enemies;
     }
     public boolean isSpawned() { return isSpawned; }
+    public void setProjectilePool(BulletStore projectilePool) { this.projectilePool = projectilePool; }
     public boolean isAllDead() { return isAllDead; }
     public int getSquadId() { return squadId; }
     public EnemyMoveType getMoveType() { return moveType; }
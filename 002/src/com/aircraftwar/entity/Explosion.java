@@ -1,5 +1,7 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.GameClock;
+import com.aircraftwar.engine.RenderList;
 import com.aircraftwar.util.DrawUtil;
 
 import java.awt.*;
@@ -12,29 +14,44 @@ public class Explosion {
     private int y;          // 爆炸中心Y坐标
     private int size;       // 爆炸尺寸（渐变增大）
     private long startTime; // 爆炸开始时间
+    private final GameClock clock;
     private static final long DURATION = 500; // 爆炸持续时间（500ms）
 
     public Explosion(int x, int y) {
+        this(x, y, GameClock.SYSTEM);
+    }
+
+    public Explosion(int x, int y, GameClock clock) {
         this.x = x;
         this.y = y;
         this.size = 20; // 初始尺寸
-        this.startTime = System.currentTimeMillis();
+        this.clock = (clock == null) ? GameClock.SYSTEM : clock;
+        this.startTime = this.clock.nowMillis();
     }
 
-    // 绘制爆炸效果（调用修复后的drawExplosion，参数匹配）
+    // 绘制爆炸效果：按存在时长选取预渲染的动画帧
     public void draw(Graphics g) {
         if (!isExpired()) {
             // 爆炸尺寸随时间增大（动画效果）
-            long elapsed = System.currentTimeMillis() - startTime;
+            long elapsed = Math.max(0L, clock.nowMillis() - startTime);
             size = 20 + (int) (elapsed * 0.08); // 渐变增大
-            // 调用drawExplosion：传入Graphics2D、x、y、size（4个参数，匹配方法定义）
-            DrawUtil.drawExplosion((Graphics2D) g, x, y, size);
+            int frame = (int) (elapsed * DrawUtil.EXPLOSION_FRAME_COUNT / DURATION);
+            DrawUtil.drawExplosionFrame((Graphics2D) g, x, y, frame);
+        }
+    }
+
+    // 记录绘制指令：帧号计算同 draw()
+    public void capture(RenderList list) {
+        if (!isExpired()) {
+            long elapsed = Math.max(0L, clock.nowMillis() - startTime);
+            size = 20 + (int) (elapsed * 0.08);
+            list.explosion(x, y, (int) (elapsed * DrawUtil.EXPLOSION_FRAME_COUNT / DURATION));
         }
     }
 
     // 检查爆炸是否过期（持续时间结束）
     public boolean isExpired() {
-        return System.currentTimeMillis() - startTime > DURATION;
+        return clock.nowMillis() - startTime > DURATION;
     }
 
     // Getter
@@ -1,5 +1,7 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.RenderList;
+
 import java.awt.*;
 
 public interface IBullet {
@@ -11,4 +13,23 @@ public interface IBullet {
     int getDamage();
     String getType();
     int getOwnerId();
+
+    /**
+     * 把碰撞包围盒写入调用方持有的 box；默认实现经由 getCollisionRect()，
+     * 内置弹种重写为直接读字段，不分配对象
+     */
+    default CollisionBox fillCollisionBox(CollisionBox box) {
+        Rectangle r = getCollisionRect();
+        return box.setRect(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * 记录本帧绘制指令（锁外统一绘制）；默认实现按碰撞框位置画一颗敌方子弹，
+     * 内置弹种重写为与 render() 一致的内容
+     */
+    default void capture(RenderList list) {
+        if (!isAlive()) return;
+        Rectangle r = getCollisionRect();
+        list.enemyBullet(r.x, r.y, r.width);
+    }
 }
@@ -1,17 +1,17 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.GameClock;
+import com.aircraftwar.engine.RenderList;
 import com.aircraftwar.factory.ProjectileFactory;
+import com.aircraftwar.util.DrawUtil;
 import com.aircraftwar.util.GameConfig;
 import com.aircraftwar.util.ImageUtil;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 public class PlayerAircraft extends Aircraft {
-    private List<IBullet> bullets;
+    private final BulletStore bullets = new BulletStore(128);
     private long lastShootTime;
 
     // 玩家射击间隔（ms）：数值越大射速越慢
@@ -26,10 +26,10 @@ public class PlayerAircraft extends Aircraft {
     private static final long MIN_SHOOT_INTERVAL_MS = 90;
 
     // 玩家飞机尺寸（和图片适配）
-    private static final int PLAYER_WIDTH = 40;
-    private static final int PLAYER_HEIGHT = 50;
-    // 玩家飞机图片
-    private BufferedImage playerImage;
+    public static final int PLAYER_WIDTH = 40;
+    public static final int PLAYER_HEIGHT = 50;
+    // 玩家飞机图片（图集中按游戏内尺寸预缩放的精灵）
+    private int playerSprite;
 
     // 新增：无敌相关状态（受伤后短暂无敌）
     private boolean invincible = false;
@@ -52,20 +52,31 @@ public class PlayerAircraft extends Aircraft {
 
     public PlayerAircraft(int x, int y) {
         super(x, y, 5, 3, PLAYER_WIDTH, PLAYER_HEIGHT);
-        this.bullets = new ArrayList<>();
-        this.lastShootTime = System.currentTimeMillis();
+        this.lastShootTime = clock.nowMillis();
         this.baseSpeed = this.speed;
 
         // 加载玩家飞机图片 + 日志
         System.out.println("[PlayerAircraft] 开始加载 PlayerPlane.png");
-        this.playerImage = ImageUtil.loadImage("PlayerPlane.png");
-        if (this.playerImage == null) {
+        this.playerSprite = ImageUtil.registerSprite("PlayerPlane.png", PLAYER_WIDTH, PLAYER_HEIGHT);
+        if (ImageUtil.getSprite(this.playerSprite) == null) {
             System.out.println("[PlayerAircraft] ❌ PlayerPlane.png 加载失败！");
         } else {
             System.out.println("[PlayerAircraft] ✅ PlayerPlane.png 加载成功！");
         }
     }
 
+    public PlayerAircraft(int x, int y, GameClock clock) {
+        this(x, y);
+        setClock(clock);
+    }
+
+    @Override
+    public void setClock(GameClock clock) {
+        super.setClock(clock);
+        // 射击间隔从新时钟的当前时间开始计
+        this.lastShootTime = this.clock.nowMillis();
+    }
+
     @Override
     public void move() {
         // 边界检查兜底（统一用 GameConfig，避免与面板尺寸不一致）
@@ -73,8 +84,12 @@ public class PlayerAircraft extends Aircraft {
         y = Math.max(0, Math.min(GameConfig.SCREEN_HEIGHT - PLAYER_HEIGHT, y));
     }
 
-    public void shoot() {
-        long currentTime = System.currentTimeMillis();
+    /**
+     * 按射击间隔发射子弹
+     * @return 本次是否真正发射（仍在冷却中返回 false）
+     */
+    public boolean shoot() {
+        long currentTime = clock.nowMillis();
         if (currentTime - lastShootTime >= shootInterval) {
             // 根据当前火力等级发射多条弹道（同一行，左右分布）
             int n = Math.max(1, Math.min(3, fireLevel));
@@ -82,27 +97,21 @@ public class PlayerAircraft extends Aircraft {
             for (int i = 0; i < n; i++) {
                 int shift = (2 * i - (n - 1)) * spacing / 2; // 对称分布
                 int fakePlayerX = x + shift;
-                IBullet b = ProjectileFactory.createPlayerBullet(fakePlayerX, y, PLAYER_WIDTH);
-                bullets.add(b);
+                ProjectileFactory.spawnPlayerBullet(bullets, fakePlayerX, y, PLAYER_WIDTH);
             }
             lastShootTime = currentTime;
+            return true;
         }
+        return false;
     }
 
     public void updateBullets() {
-        Iterator<IBullet> iterator = bullets.iterator();
-        while (iterator.hasNext()) {
-            IBullet bullet = iterator.next();
-            bullet.update();
-            if (!bullet.isAlive()) {
-                iterator.remove();
-            }
-        }
+        bullets.update();
     }
 
     // 每帧更新：处理无敌时长结束
     public void update() {
-        if (invincible && System.currentTimeMillis() > invincibleUntil) {
+        if (invincible && clock.nowMillis() > invincibleUntil) {
             invincible = false;
         }
     }
@@ -112,38 +121,33 @@ public class PlayerAircraft extends Aircraft {
         if (!isAlive()) return;
 
         Graphics2D g2d = (Graphics2D) g;
-        ImageUtil.drawImage(g2d, playerImage, x, y, PLAYER_WIDTH, PLAYER_HEIGHT);
+        int rx = getRenderX();
+        int ry = getRenderY();
+        ImageUtil.drawSprite(g2d, playerSprite, rx, ry);
 
         // 无敌期间渲染金色光圈
         if (invincible) {
-            Composite oldComp = g2d.getComposite();
-            Stroke oldStroke = g2d.getStroke();
-            Color oldColor = g2d.getColor();
-
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.75f));
-            g2d.setColor(new Color(255, 215, 0));
-            g2d.setStroke(new BasicStroke(4f));
-
             int pad = Math.max(PLAYER_WIDTH, PLAYER_HEIGHT) / 4;
-            int ox = x - pad;
-            int oy = y - pad;
-            int ow = PLAYER_WIDTH + pad * 2;
-            int oh = PLAYER_HEIGHT + pad * 2;
-            g2d.drawOval(ox, oy, ow, oh);
-
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f));
-            g2d.setStroke(new BasicStroke(10f));
-            g2d.drawOval(ox - 3, oy - 3, ow + 6, oh + 6);
-
-            g2d.setComposite(oldComp);
-            g2d.setStroke(oldStroke);
-            g2d.setColor(oldColor);
+            DrawUtil.drawInvincibleRing(g2d, rx - pad, ry - pad, PLAYER_WIDTH + pad * 2, PLAYER_HEIGHT + pad * 2);
         }
 
         // 绘制子弹
-        for (IBullet bullet : bullets) {
-            bullet.render(g);
+        bullets.render(g);
+    }
+
+    // 与 draw() 相同的内容，记录为绘制指令（渲染线程在 worldLock 内调用）
+    @Override
+    public void capture(RenderList list) {
+        if (!isAlive()) return;
+
+        int rx = getRenderX();
+        int ry = getRenderY();
+        list.sprite(playerSprite, rx, ry);
+        if (invincible) {
+            int pad = Math.max(PLAYER_WIDTH, PLAYER_HEIGHT) / 4;
+            list.invincibleRing(rx - pad, ry - pad, PLAYER_WIDTH + pad * 2, PLAYER_HEIGHT + pad * 2);
         }
+        bullets.capture(list);
     }
 
     /**
@@ -205,12 +209,12 @@ public class PlayerAircraft extends Aircraft {
         if (invincible) return;
 
         // 记录受击时间（用于 UI/屏幕震动/闪烁）
-        lastHitAtMs = System.currentTimeMillis();
+        lastHitAtMs = clock.nowMillis();
 
         // 关键：先立刻进入无敌，再处理扣血。
         // 这样同一帧里如果又发生多次碰撞，后续 hit() 会被立即拦截。
         invincible = true;
-        invincibleUntil = System.currentTimeMillis() + INVINCIBLE_MS;
+        invincibleUntil = clock.nowMillis() + INVINCIBLE_MS;
 
         super.hit(damage);
 
@@ -225,7 +229,7 @@ public class PlayerAircraft extends Aircraft {
     }
 
     public boolean isRecentlyHit() {
-        return System.currentTimeMillis() - lastHitAtMs <= HIT_FEEDBACK_MS;
+        return lastHitAtMs > 0L && clock.nowMillis() - lastHitAtMs <= HIT_FEEDBACK_MS;
     }
 
     public void moveUp() {
@@ -253,7 +257,12 @@ public class PlayerAircraft extends Aircraft {
         // AudioUtil.playPlayerDeadSound(); // 保留音效（如有）
     }
 
+    // 兼容视图（只读）；热路径请用 getBulletStore()
     public List<IBullet> getBullets() {
+        return bullets.asList();
+    }
+
+    public BulletStore getBulletStore() {
         return bullets;
     }
 }
@@ -0,0 +1,50 @@
+package com.aircraftwar.entity;
+
+import com.aircraftwar.engine.GameRandom;
+import com.aircraftwar.engine.GameSimulation;
+import com.aircraftwar.engine.ManualClock;
+import com.aircraftwar.engine.MicroBench;
+import com.aircraftwar.util.GameConfig;
+
+/**
+ * 单个小队 moveSquad 的吞吐与分配，覆盖每种编队 × 运动类型。
+ * 用法：SquadBenchRunner [波次，默认 5] [--warmup=毫秒] [--time=毫秒]
+ * 每次调用新建一个小队（固定种子），立即生成，按模拟时钟跑完 SQUAD_TICKS 个 tick（约 20 秒：
+ * 入场 → 巡航 → 俯冲 → 重组），结果按每次 moveSquad 计，小队构造与生成的开销摊在其中。
+ */
+public class SquadBenchRunner {
+    static final int SQUAD_TICKS = GameSimulation.TICK_RATE * 20;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        java.util.List<String> rest = MicroBench.configure(args);
+        int waveNumber = rest.isEmpty() ? 5 : Integer.parseInt(rest.get(0));
+        MicroBench.muteConsole();
+
+        BulletStore projectiles = new BulletStore();
+        for (EnemySquad.Formation formation : EnemySquad.Formation.values()) {
+            for (EnemyMoveType moveType : EnemyMoveType.values()) {
+                MicroBench.run("moveSquad wave=" + waveNumber + " " + formation + " " + moveType, SQUAD_TICKS,
+                        () -> runSquad(formation, moveType, waveNumber, projectiles));
+            }
+        }
+    }
+
+    private static int runSquad(EnemySquad.Formation formation, EnemyMoveType moveType, int waveNumber,
+                                BulletStore projectiles) {
+        ManualClock clock = new ManualClock();
+        EnemySquad squad = new EnemySquad(1, waveNumber, 0L, DifficultyProfile.DifficultyKey.VETERAN,
+                clock, new GameRandom(MicroBench.SEED));
+        squad.setLayout(formation, moveType);
+        squad.setProjectilePool(projectiles);
+        squad.setPlayerPosition(GameConfig.SCREEN_WIDTH / 2, GameConfig.SCREEN_HEIGHT - 150);
+        projectiles.clear();
+
+        squad.checkSpawn(clock.nowMillis());
+        for (int i = 0; i < SQUAD_TICKS; i++) {
+            clock.advanceNanos(GameSimulation.TICK_NANOS);
+            squad.moveSquad();
+        }
+        return squad.getEnemies().size() + projectiles.size();
+    }
+}
@@ -1,7 +1,12 @@
 package com.aircraftwar.entity;
 
+import com.aircraftwar.engine.GameClock;
+import com.aircraftwar.engine.GameRandom;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * 波次管理类（关联小队，无尽型）
@@ -19,6 +24,11 @@ public class Wave {
     private long duration;           // 本波时长（随波次递减，最低15秒）
     private boolean isWaveOver;      // 本波是否结束
     private com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty;
+    private final GameClock clock;   // 本波所有计时（小队/敌机/Bee）共用的时钟
+    private final GameRandom random; // 本局随机数服务（小队/敌机/Bee 共用，各取各的流）
+    private final SplittableRandom spawnRandom; // 生成间隔与 Bee 出场
+    // 本波所有敌方子弹（敌机死亡后子弹仍在池中飞行，敌机对象可立即释放）
+    private final EnemyProjectilePool enemyProjectiles = new EnemyProjectilePool();
 
     // 构造方法（无尽型，波次难度递增）
     // 兼容旧构造：默认新手
@@ -28,9 +38,22 @@ public class Wave {
 
     // 新构造：带难度
     public Wave(int waveNumber, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty) {
+        this(waveNumber, difficulty, GameClock.SYSTEM);
+    }
+
+    // 带难度 + 时钟（GameSimulation 注入，便于加速/暂停模拟时间）
+    public Wave(int waveNumber, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty, GameClock clock) {
+        this(waveNumber, difficulty, clock, GameRandom.unseeded());
+    }
+
+    // 带难度 + 时钟 + 随机数服务（GameSimulation 注入：同一种子、同样输入得到同样的波次）
+    public Wave(int waveNumber, com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty, GameClock clock, GameRandom random) {
         this.waveNumber = waveNumber;
         this.difficulty = (difficulty == null) ? com.aircraftwar.entity.DifficultyProfile.DifficultyKey.NEWBIE : difficulty;
-        this.startTime = System.currentTimeMillis();
+        this.clock = (clock == null) ? GameClock.SYSTEM : clock;
+        this.random = (random == null) ? GameRandom.unseeded() : random;
+        this.spawnRandom = this.random.stream(GameRandom.Stream.SPAWN);
+        this.startTime = this.clock.nowMillis();
         this.nextBeeSpawnAtMs = this.startTime + 1200; // 开局延后一点，避免一开始就太挤
         this.spawnedBeeCount = 0;
         // 波次越高，时长越短（最低15秒）
@@ -69,19 +92,21 @@ public class Wave {
             long add;
             if (waveNumber <= 1) {
                 // 0.8-1.4s：开局更有压迫感
-                add = (1000 + (long) (Math.random() * 600));
+                add = (1000 + (long) (spawnRandom.nextDouble() * 600));
             } else if (waveNumber <= 3) {
                 // 1.0-2.0s：前几波更密集
-                add = (1000 + (long) (Math.random() * 1000));
+                add = (1000 + (long) (spawnRandom.nextDouble() * 1000));
             } else {
                 // 随波次稍微缩短生成间隔（下限兜底），避免后期变“空窗期”
                 long base = Math.max(900, 1700 - waveNumber * 60L);
                 long jitter = Math.max(700, 2200 - waveNumber * 40L);
-                add = (base + (long) (Math.random() * jitter));
+                add = (base + (long) (spawnRandom.nextDouble() * jitter));
             }
 
             spawnDelay += (long) Math.max(250, Math.round(add * spawnMult));
-            squads.add(new EnemySquad(i + 1, waveNumber, spawnDelay, this.difficulty));
+            EnemySquad squad = new EnemySquad(i + 1, waveNumber, spawnDelay, this.difficulty, this.clock, this.random);
+            squad.setProjectilePool(enemyProjectiles.getStore());
+            squads.add(squad);
         }
     }
 
@@ -98,11 +123,11 @@ public class Wave {
         // 越难 -> 越快；波次越高 -> 稍快，但不要太夸张
         long base;
         if (difficulty == com.aircraftwar.entity.DifficultyProfile.DifficultyKey.IMPOSSIBLE) {
-            base = 1600 + (long) (Math.random() * 900);   // 1.6~2.5s
+            base = 1600 + (long) (spawnRandom.nextDouble() * 900);   // 1.6~2.5s
         } else if (difficulty == com.aircraftwar.entity.DifficultyProfile.DifficultyKey.VETERAN) {
-            base = 2100 + (long) (Math.random() * 1000);  // 2.1~3.1s
+            base = 2100 + (long) (spawnRandom.nextDouble() * 1000);  // 2.1~3.1s
         } else {
-            base = 2800 + (long) (Math.random() * 1200);  // 2.8~4.0s
+            base = 2800 + (long) (spawnRandom.nextDouble() * 1200);  // 2.8~4.0s
         }
         long waveTrim = Math.min(900, waveNumber * 60L);
         return Math.max(900, base - waveTrim);
@@ -117,10 +142,13 @@ public class Wave {
 
         // 出场：更像敌机小队那种“突然进入战斗区域”的感觉
         // 直接生成在屏幕上方可见范围（靠近小队 ENTER 目标高度），避免屏幕外开火/等待太久
-        int initX = com.aircraftwar.util.GameConfig.BOUNDARY_PADDING + (int) (Math.random() * (w - com.aircraftwar.util.GameConfig.BOUNDARY_PADDING * 2));
-        int initY = 70 + (int) (Math.random() * 40); // 70~109
+        int initX = com.aircraftwar.util.GameConfig.BOUNDARY_PADDING + (int) (spawnRandom.nextDouble() * (w - com.aircraftwar.util.GameConfig.BOUNDARY_PADDING * 2));
+        int initY = 70 + (int) (spawnRandom.nextDouble() * 40); // 70~109
 
         BeeAircraft bee = new BeeAircraft(waveNumber, initX, initY, difficulty);
+        bee.setClock(clock);
+        bee.setRandom(random);
+        bee.setProjectilePool(enemyProjectiles.getStore());
         // Bee 自己 move() 会平滑运动并射击；这里仅纳入管理
         independentBees.add(bee);
         spawnedBeeCount++;
@@ -131,7 +159,7 @@ public class Wave {
     // 检查本波是否结束（所有小队全灭 OR 时间结束）
     public void checkWaveOver() {
         // 时间结束：标记波次结束
-        if (System.currentTimeMillis() - startTime >= duration && !isWaveOver) {
+        if (clock.nowMillis() - startTime >= duration && !isWaveOver) {
             isWaveOver = true;
             // 剩余敌机逃跑
             for (EnemySquad squad : squads) {
@@ -162,37 +190,41 @@ public class Wave {
 
     // 更新本波所有小队
     public void updateWave() {
-        long now = System.currentTimeMillis();
+        long now = clock.nowMillis();
 
         // 检查小队生成
         for (EnemySquad squad : squads) {
             squad.checkSpawn(startTime);
             // 移动小队
             squad.moveSquad();
-            // 更新小队子弹
-            squad.updateSquadBullets();
+            // 小队子弹收进弹幕池
+            squad.collectBullets(enemyProjectiles);
         }
 
         // 独立 Bee：按难度/波次调度生成，并更新移动与子弹
         trySpawnIndependentBee(now);
-        // 注意：Bee 死亡后仍要让残留子弹继续飞行直到越界，所以不能立刻移除 Bee 对象。
-        // 这里的策略：
-        // - Bee 活着：正常 move + updateBullets
-        // - Bee 死亡：只 updateBullets；当 bullets 清空后才移除该 Bee
-        independentBees.removeIf(b -> {
-            if (b == null) return true;
-            if (b.isAlive()) return false;
-            // 已死亡：若没有任何残留子弹，则可以移除
-            List<IBullet> bs = b.getBullets();
-            return bs == null || bs.isEmpty();
-        });
-        for (BeeAircraft bee : independentBees) {
-            if (bee.isAlive()) {
-                bee.move();
+        // Bee 死亡后残留子弹已在弹幕池里，对象可以立即移除
+        Iterator<BeeAircraft> beeIterator = independentBees.iterator();
+        while (beeIterator.hasNext()) {
+            BeeAircraft bee = beeIterator.next();
+            if (bee == null) {
+                beeIterator.remove();
+            } else if (!bee.isAlive()) {
+                enemyProjectiles.adoptFrom(bee);
+                beeIterator.remove();
             }
+        }
+        for (BeeAircraft bee : independentBees) {
+            bee.savePrevPosition();
+            bee.move();
+            // 先接管本 tick 新发射的子弹，Bee 自己的 updateBullets 不再重复移动它们
+            enemyProjectiles.adoptFrom(bee);
             bee.updateBullets();
         }
 
+        // 所有敌方子弹一次性推进
+        enemyProjectiles.update();
+
         // 检查波次是否结束
         checkWaveOver();
     }
@@ -200,17 +232,40 @@ public class Wave {
     // 获取本波所有敌机（用于碰撞检测）
     public List<EnemyAircraft> getAllEnemies() {
         List<EnemyAircraft> allEnemies = new ArrayList<>();
-        for (EnemySquad squad : squads) {
-            if (squad.isSpawned()) {
-                allEnemies.addAll(squad.getEnemies());
+        collectAllEnemies(allEnemies);
+        return allEnemies;
+    }
+
+    // 同上，但写入调用方复用的列表（每 tick 调用时不产生新列表）
+    public void collectAllEnemies(List<EnemyAircraft> out) {
+        out.clear();
+        for (int i = 0; i < squads.size(); i++) {
+            EnemySquad squad = squads.get(i);
+            if (!squad.isSpawned()) continue;
+            List<EnemyAircraft> enemies = squad.getEnemies();
+            for (int j = 0; j < enemies.size(); j++) {
+                out.add(enemies.get(j));
             }
         }
 
         // Bee 作为 EnemyAircraft 子类，也加入碰撞检测
-        allEnemies.addAll(independentBees);
-        return allEnemies;
+        for (int i = 0; i < independentBees.size(); i++) {
+            out.add(independentBees.get(i));
+        }
     }
 
+    // 绘制本波所有敌方子弹
+    public void renderProjectiles(java.awt.Graphics g) {
+        enemyProjectiles.render(g);
+    }
+
+    // 记录本波所有敌方子弹的绘制指令
+    public void captureProjectiles(com.aircraftwar.engine.RenderList list) {
+        enemyProjectiles.capture(list);
+    }
+
+    public EnemyProjectilePool getEnemyProjectiles() { return enemyProjectiles; }
+
     // 供 UI/调试：独立 Bee 列表
     public List<BeeAircraft> getIndependentBees() { return independentBees; }
 
@@ -220,6 +275,8 @@ public class Wave {
     public boolean isWaveOver() { return isWaveOver; }
     public long getDuration() { return duration; }
     public long getStartTime() { return startTime; }
+    public GameClock getClock() { return clock; }
+    public GameRandom getRandom() { return random; }
     public com.aircraftwar.entity.DifficultyProfile.DifficultyKey getDifficulty() {
         return difficulty;
     }
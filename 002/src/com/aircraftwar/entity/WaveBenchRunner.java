@@ -0,0 +1,37 @@
+package com.aircraftwar.entity;
+
+import com.aircraftwar.engine.GameRandom;
+import com.aircraftwar.engine.GameSimulation;
+import com.aircraftwar.engine.ManualClock;
+import com.aircraftwar.engine.MicroBench;
+
+/**
+ * Wave.updateWave（小队生成/移动、Bee、弹幕池推进）的吞吐与分配，按波次 1/10/50 × 每种难度。
+ * 用法：WaveBenchRunner [--warmup=毫秒] [--time=毫秒]
+ * 每次调用新建一波（固定种子），跑 WAVE_TICKS 个 tick（15 秒，最短波次时长以内，小队陆续入场），
+ * 结果按每次 updateWave 计。没有玩家子弹，敌机不会被击毁，负载只随生成节奏增长。
+ */
+public class WaveBenchRunner {
+    static final int WAVE_TICKS = GameSimulation.TICK_RATE * 15;
+    private static final int[] WAVES = { 1, 10, 50 };
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        MicroBench.configure(args);
+        MicroBench.muteConsole();
+
+        for (int waveNumber : WAVES) {
+            for (DifficultyProfile.DifficultyKey difficulty : DifficultyProfile.DifficultyKey.values()) {
+                MicroBench.run("updateWave wave=" + waveNumber + " " + difficulty, WAVE_TICKS, () -> {
+                    ManualClock clock = new ManualClock();
+                    Wave wave = new Wave(waveNumber, difficulty, clock, new GameRandom(MicroBench.SEED));
+                    for (int i = 0; i < WAVE_TICKS; i++) {
+                        clock.advanceNanos(GameSimulation.TICK_NANOS);
+                        wave.updateWave();
+                    }
+                    return wave.getEnemyProjectiles().size();
+                });
+            }
+        }
+    }
+}
@@ -1,34 +1,160 @@
 package com.aircraftwar.event;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 
 /**
  * 轻量事件总线（队列式）：post() 将事件入队，调用方在合适时机调用 drain() 在同一线程处理事件，避免订阅者阻塞。
+ *
+ * 队列为预分配的环形缓冲（多生产者 / 单消费者）：每个槽位带序号，生产者 CAS 抢占写位置后发布序号，
+ * 消费者按序号读取，post()/drain() 都不分配对象。分发表（事件类型 -> 处理器数组）只在订阅/退订时整体重建，
+ * drain() 直接读取当前快照，无需加锁复制。
+ * 环形缓冲写满时（长时间无人 drain）事件转入溢出队列，仍保证不丢。
+ *
+ * 合并策略：可按事件类型设置 {@link Coalescing}，在一次 drain()（即一个 tick）内合并同类事件，
+ * 减少重复的音效/得分事件到达订阅者。合并状态以 drain() 调用为一代：同一次 drain 中处理器新投递的事件
+ * 与开头取出的事件共用去重记录，drain 结束时统一清空。
+ *
+ * 预算与优先级：drain(budgetNanos, maxEvents) 先把环形缓冲中的事件（合并后）按 {@link Priority}
+ * 分到各自的待处理队列，再按 玩法 → 音频 → 统计 的顺序分发，超出时间/数量预算即停止，
+ * 剩余事件留到下一帧继续处理；getBacklog() 返回上次 drain 结束时的积压数量。
  */
 public class EventBus {
     private static final EventBus INSTANCE = new EventBus();
 
-    private final Map<Class<?>, List<Consumer<?>>> handlers = new HashMap<>();
-    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    /** 同一 tick 内同类事件的合并方式 */
+    public enum Coalescing {
+        /** 不合并，逐个分发（默认） */
+        NONE,
+        /** 只分发最后一个 */
+        KEEP_LAST,
+        /** 用合并函数折叠成一个（如累计次数、取首尾区间） */
+        MERGE,
+        /** equals() 相同的事件只分发第一个 */
+        DROP_DUPLICATES
+    }
+
+    /** 分发优先级（数值小者先处理），未设置的事件类型按 GAMEPLAY 处理 */
+    public enum Priority {
+        GAMEPLAY,
+        AUDIO,
+        ANALYTICS
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024; // 必须是 2 的幂
+    private static final Consumer<Object>[] NO_HANDLERS = newArray(0);
+
+    // 订阅表（受 this 保护）与分发快照（只读，订阅变化时整体替换）
+    private final Map<Class<?>, Consumer<Object>[]> handlers = new HashMap<>();
+    private volatile Map<Class<?>, Consumer<Object>[]> dispatchTable = new HashMap<>();
+
+    // 环形缓冲：sequences[i] == 写序号 表示可写，== 写序号 + 1 表示已发布可读
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // 只由持有 drainLock 的消费者访问
 
-    private EventBus() {}
+    private final ConcurrentLinkedQueue<Object> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowCount = new AtomicInteger();
+    private final Object drainLock = new Object();
+
+    // 合并配置（写时复制）；Coalescer 自身的本代（一次 drain）状态只由消费者访问，dirty 列表记录本代用到的 Coalescer
+    private volatile Map<Class<?>, Coalescer> coalescers = new HashMap<>();
+    private Coalescer[] dirtyCoalescers = new Coalescer[8];
+    private int dirtyCount;
+
+    // 优先级配置（写时复制）与各优先级的待处理队列（只由消费者访问，跨帧保留）
+    private volatile Map<Class<?>, Priority> priorities = new HashMap<>();
+    private final EventQueue[] pending = new EventQueue[Priority.values().length];
+    private volatile int backlog;
+
+    private EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    EventBus(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity 必须是 2 的幂: " + capacity);
+        mask = capacity - 1;
+        slots = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) sequences.set(i, i);
+        for (int i = 0; i < pending.length; i++) pending[i] = new EventQueue();
+    }
 
     public static EventBus getDefault() {
         return INSTANCE;
     }
 
+    @SuppressWarnings("unchecked") // 按 eventType 建表，dispatch 只把该类型的事件交给 handler
     public synchronized <T> void subscribe(Class<T> eventType, Consumer<T> handler) {
-        handlers.computeIfAbsent(eventType, k -> new ArrayList<>()).add(handler);
+        Consumer<Object>[] list = handlers.getOrDefault(eventType, NO_HANDLERS);
+        Consumer<Object>[] next = java.util.Arrays.copyOf(list, list.length + 1);
+        next[list.length] = (Consumer<Object>) handler;
+        handlers.put(eventType, next);
+        rebuildDispatchTable();
     }
 
     public synchronized <T> void unsubscribe(Class<T> eventType, Consumer<T> handler) {
-        List<Consumer<?>> list = handlers.get(eventType);
-        if (list != null) list.remove(handler);
+        Consumer<Object>[] list = handlers.get(eventType);
+        if (list == null) return;
+        for (int i = 0; i < list.length; i++) {
+            if (list[i].equals(handler)) {
+                Consumer<Object>[] next = newArray(list.length - 1);
+                System.arraycopy(list, 0, next, 0, i);
+                System.arraycopy(list, i + 1, next, i, list.length - i - 1);
+                if (next.length == 0) handlers.remove(eventType);
+                else handlers.put(eventType, next);
+                rebuildDispatchTable();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 设置某类事件在同一 tick 内的合并方式（MERGE 请用 setMerger）
+     */
+    public <T> void setCoalescing(Class<T> eventType, Coalescing policy) {
+        if (policy == Coalescing.MERGE) throw new IllegalArgumentException("MERGE 需要合并函数，请使用 setMerger()");
+        putCoalescer(eventType, policy == Coalescing.NONE ? null : new Coalescer(policy, null));
+    }
+
+    /**
+     * 同一 tick 内的同类事件用 merger 两两折叠（merger(较早, 较晚)），只分发折叠结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void setMerger(Class<T> eventType, BinaryOperator<T> merger) {
+        putCoalescer(eventType, new Coalescer(Coalescing.MERGE, (BinaryOperator<Object>) merger));
+    }
+
+    /**
+     * 设置某类事件的分发优先级
+     */
+    public synchronized void setPriority(Class<?> eventType, Priority priority) {
+        Map<Class<?>, Priority> next = new HashMap<>(priorities);
+        if (priority == null || priority == Priority.GAMEPLAY) next.remove(eventType);
+        else next.put(eventType, priority);
+        priorities = next;
+    }
+
+    /**
+     * 上次 drain() 结束时仍未处理的事件数（含环形缓冲/溢出队列中尚未取出的）
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * 是否有处理器订阅了该事件类型（发送方可据此跳过无人接收的事件对象创建）
+     */
+    public boolean hasSubscribers(Class<?> eventType) {
+        return dispatchTable.containsKey(eventType);
     }
 
     /**
@@ -36,28 +162,244 @@ public class EventBus {
      */
     public void post(Object event) {
         if (event == null) return;
-        queue.offer(event);
+        // 溢出队列非空时继续排在它后面，保持同一生产者的先后顺序
+        if (overflowCount.get() > 0 || !offer(event)) {
+            overflowCount.incrementAndGet();
+            overflow.offer(event);
+        }
     }
 
     /**
-     * 在调用线程处理队列中的事件（非并发）。推荐在主循环中调用一次/帧处理。
+     * 在调用线程处理队列中的全部事件（非并发），包括处理过程中新投递的事件。
      */
-    @SuppressWarnings("unchecked")
     public void drain() {
+        drain(Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 在预算内按优先级处理事件，剩余事件留到下次 drain。每次至少处理一个事件，保证积压总能推进。
+     * @param budgetNanos 本次最多占用的时间（纳秒）
+     * @param maxEvents   本次最多分发的事件数
+     * @return 处理结束后的积压数量
+     */
+    public int drain(long budgetNanos, int maxEvents) {
+        synchronized (drainLock) {
+            boolean timed = budgetNanos != Long.MAX_VALUE; // 无时间预算时不读时钟
+            long start = timed ? System.nanoTime() : 0L;
+            int processed = 0;
+            transfer();
+            while (true) {
+                Object evt = nextPending();
+                if (evt == null) {
+                    // 处理器在本次 drain 中投递的新事件：预算内继续处理
+                    if (!hasQueued()) break;
+                    transfer();
+                    continue;
+                }
+                dispatch(evt);
+                processed++;
+                if (processed >= maxEvents || (timed && System.nanoTime() - start >= budgetNanos)) break;
+            }
+            endCoalescingGeneration();
+            int remaining = (int) Math.min(Integer.MAX_VALUE, tail.get() - head) + overflowCount.get();
+            for (EventQueue queue : pending) remaining += queue.size;
+            backlog = remaining;
+            return remaining;
+        }
+    }
+
+    // 把环形缓冲/溢出队列中的事件取出，经合并后放入各优先级待处理队列（不执行处理器）
+    private void transfer() {
+        Map<Class<?>, Coalescer> policies = coalescers;
+        Map<Class<?>, Priority> priorityMap = priorities;
         Object evt;
-        while ((evt = queue.poll()) != null) {
-            List<Consumer<?>> list;
-            synchronized (this) {
-                list = handlers.get(evt.getClass());
-                if (list == null) continue;
-                list = new ArrayList<>(list);
+        while ((evt = poll()) != null) {
+            enqueuePending(policies, priorityMap, evt);
+        }
+        while ((evt = overflow.poll()) != null) {
+            overflowCount.decrementAndGet();
+            enqueuePending(policies, priorityMap, evt);
+        }
+        // 本批暂存的合并结果进入待处理队列；去重记录保留到本次 drain 结束
+        for (int i = 0; i < dirtyCount; i++) {
+            Coalescer coalescer = dirtyCoalescers[i];
+            Object held = coalescer.pending;
+            coalescer.pending = null;
+            if (held != null) pendingQueue(priorityMap, held).add(held);
+        }
+    }
+
+    // 一次 drain 结束：清空本代全部合并状态，下次 drain 重新开始
+    private void endCoalescingGeneration() {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirtyCoalescers[i].reset();
+            dirtyCoalescers[i] = null;
+        }
+        dirtyCount = 0;
+    }
+
+    private void enqueuePending(Map<Class<?>, Coalescer> policies, Map<Class<?>, Priority> priorityMap, Object evt) {
+        Coalescer coalescer = policies.isEmpty() ? null : policies.get(evt.getClass());
+        if (coalescer == null) {
+            pendingQueue(priorityMap, evt).add(evt);
+            return;
+        }
+        if (!coalescer.dirty) {
+            coalescer.dirty = true;
+            if (dirtyCount == dirtyCoalescers.length) {
+                dirtyCoalescers = java.util.Arrays.copyOf(dirtyCoalescers, dirtyCount * 2);
             }
-            for (Consumer handler : list) {
-                try {
-                    handler.accept(evt);
-                } catch (Exception e) {
-                    e.printStackTrace();
+            dirtyCoalescers[dirtyCount++] = coalescer;
+        }
+        if (coalescer.accept(evt)) pendingQueue(priorityMap, evt).add(evt);
+    }
+
+    private EventQueue pendingQueue(Map<Class<?>, Priority> priorityMap, Object evt) {
+        Priority priority = priorityMap.isEmpty() ? null : priorityMap.get(evt.getClass());
+        return pending[priority == null ? 0 : priority.ordinal()];
+    }
+
+    private Object nextPending() {
+        for (EventQueue queue : pending) {
+            if (queue.size > 0) return queue.poll();
+        }
+        return null;
+    }
+
+    private boolean hasQueued() {
+        return sequences.get((int) head & mask) == head + 1 || overflowCount.get() > 0;
+    }
+
+    // 多生产者入队：抢占 tail 对应槽位；槽位仍未被消费（缓冲已满）时返回 false
+    private boolean offer(Object event) {
+        while (true) {
+            long t = tail.get();
+            int index = (int) t & mask;
+            long seq = sequences.get(index);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots[index] = event;
+                    sequences.lazySet(index, t + 1); // 发布
+                    return true;
                 }
+            } else if (seq < t) {
+                return false;
+            }
+            // seq > t：其他生产者已抢到该位置，重读 tail
+        }
+    }
+
+    // 单消费者出队（调用方持有 drainLock）
+    private Object poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) return null;
+        Object event = slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + mask + 1); // 归还给下一圈的生产者
+        head++;
+        return event;
+    }
+
+    private void dispatch(Object evt) {
+        Consumer<Object>[] list = dispatchTable.get(evt.getClass());
+        if (list == null) return;
+        for (Consumer<Object> handler : list) {
+            try {
+                handler.accept(evt);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void rebuildDispatchTable() {
+        dispatchTable = new HashMap<>(handlers);
+    }
+
+    // 处理器数组与类型擦除的唯一出口：泛型数组只能经原始类型创建
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Consumer<Object>[] newArray(int n) {
+        return new Consumer[n];
+    }
+
+    // 消费者私有的 FIFO（容量为 2 的幂的数组环形队列，仅在积压超过容量时扩容）
+    private static final class EventQueue {
+        Object[] items = new Object[64];
+        int head;
+        int size;
+
+        void add(Object evt) {
+            if (size == items.length) {
+                Object[] next = new Object[items.length * 2];
+                for (int i = 0; i < size; i++) next[i] = items[(head + i) & (items.length - 1)];
+                items = next;
+                head = 0;
+            }
+            items[(head + size) & (items.length - 1)] = evt;
+            size++;
+        }
+
+        Object poll() {
+            Object evt = items[head];
+            items[head] = null;
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return evt;
+        }
+    }
+
+    private synchronized void putCoalescer(Class<?> eventType, Coalescer coalescer) {
+        Map<Class<?>, Coalescer> next = new HashMap<>(coalescers);
+        if (coalescer == null) next.remove(eventType);
+        else next.put(eventType, coalescer);
+        coalescers = next;
+    }
+
+    // 单个事件类型在一次 drain 内的合并状态
+    private static final class Coalescer {
+        // 去重记录的初始容量：不设上限，超出时翻倍（线性比较，适合每 tick 少量不同事件）
+        private static final int INITIAL_TRACKED = 16;
+
+        final Coalescing policy;
+        final BinaryOperator<Object> merger;
+        Object[] seen;
+        int seenCount;
+        Object pending;
+        boolean dirty;
+
+        Coalescer(Coalescing policy, BinaryOperator<Object> merger) {
+            this.policy = policy;
+            this.merger = merger;
+            this.seen = policy == Coalescing.DROP_DUPLICATES ? new Object[INITIAL_TRACKED] : null;
+        }
+
+        // 返回 true 表示该事件直接进入待处理队列；否则已暂存/丢弃
+        boolean accept(Object evt) {
+            switch (policy) {
+                case KEEP_LAST:
+                    pending = evt;
+                    return false;
+                case MERGE:
+                    pending = (pending == null) ? evt : merger.apply(pending, evt);
+                    return false;
+                case DROP_DUPLICATES:
+                    for (int i = 0; i < seenCount; i++) {
+                        if (seen[i].equals(evt)) return false;
+                    }
+                    if (seenCount == seen.length) seen = java.util.Arrays.copyOf(seen, seenCount * 2);
+                    seen[seenCount++] = evt;
+                    return true;
+                default:
+                    return true;
+            }
+        }
+
+        void reset() {
+            pending = null;
+            dirty = false;
+            if (seen != null) {
+                for (int i = 0; i < seenCount; i++) seen[i] = null;
+                seenCount = 0;
             }
         }
     }
@@ -0,0 +1,14 @@
+package com.aircraftwar.event.events;
+
+public class GameOverEvent {
+    private final int finalScore;
+    private final int waveNumber;
+
+    public GameOverEvent(int finalScore, int waveNumber) {
+        this.finalScore = finalScore;
+        this.waveNumber = waveNumber;
+    }
+
+    public int getFinalScore() { return finalScore; }
+    public int getWaveNumber() { return waveNumber; }
+}
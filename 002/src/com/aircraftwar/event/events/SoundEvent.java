@@ -1,6 +1,10 @@
 package com.aircraftwar.event.events;
 
 public class SoundEvent {
+    // 常用音效（事件不可变，可重复投递，免去每次发射/爆炸创建对象）
+    public static final SoundEvent SHOOT = new SoundEvent("shoot", 1.0f);
+    public static final SoundEvent EXPLODE = new SoundEvent("explode", 1.0f);
+
     private final String soundId;
     private final float volume;
 
@@ -11,5 +15,19 @@ public class SoundEvent {
 
     public String getSoundId() { return soundId; }
     public float getVolume() { return volume; }
+
+    // 同一 tick 去重用（EventBus.Coalescing.DROP_DUPLICATES）
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SoundEvent)) return false;
+        SoundEvent other = (SoundEvent) o;
+        return Float.compare(volume, other.volume) == 0 && java.util.Objects.equals(soundId, other.soundId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * java.util.Objects.hashCode(soundId) + Float.hashCode(volume);
+    }
 }
 
@@ -0,0 +1,11 @@
+package com.aircraftwar.event.events;
+
+public class WaveStartedEvent {
+    private final int waveNumber;
+
+    public WaveStartedEvent(int waveNumber) {
+        this.waveNumber = waveNumber;
+    }
+
+    public int getWaveNumber() { return waveNumber; }
+}
@@ -1,30 +1,65 @@
 package com.aircraftwar.factory;
 
 import com.aircraftwar.entity.Bullet;
+import com.aircraftwar.entity.BulletStore;
+import com.aircraftwar.entity.CollisionBox;
 import com.aircraftwar.entity.DirectionalEnemyBullet;
 import com.aircraftwar.entity.EnemyBullet;
 import com.aircraftwar.entity.IBullet;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 可注册的 ProjectileFactory：按弹种字符串创建弹体。当前注册默认的 player_basic / enemy_basic。
+ * 可注册的 ProjectileFactory：按弹种字符串创建弹体。当前注册默认的 player_basic / enemy_basic / enemy_directional。
+ *
+ * 每个弹种是一条 Definition：Maker 负责创建 IBullet 对象；storeType/速度/伤害描述同一弹种写入 BulletStore 时的参数。
+ * spawnXxx() 按注册表里的定义写入 BulletStore，register() 重新注册后两条路径都随之生效。
  */
 public class ProjectileFactory {
     public interface Maker {
         IBullet make(Map<String, Object> params);
     }
 
-    private static final Map<String, Maker> registry = new HashMap<>();
+    /**
+     * 弹种定义。storeType < 0 表示该弹种只能以对象形式存在（spawnXxx 改走 Maker 创建对象）。
+     * vx/vy 为每 tick 位移。
+     */
+    public static final class Definition {
+        public final Maker maker;
+        public final int storeType;
+        public final float vx;
+        public final float vy;
+        public final int damage;
+
+        public Definition(Maker maker, int storeType, float vx, float vy, int damage) {
+            if (maker == null) throw new IllegalArgumentException("maker 不能为空");
+            this.maker = maker;
+            this.storeType = storeType;
+            this.vx = vx;
+            this.vy = vy;
+            this.damage = damage;
+        }
+
+        public boolean isStored() {
+            return storeType >= 0;
+        }
+    }
+
+    private static final Map<String, Definition> registry = new ConcurrentHashMap<>();
 
     static {
-        // register defaults
-        registry.put("player_basic", params -> new Bullet((int) params.getOrDefault("x", 0), (int) params.getOrDefault("y", 0), (int) params.getOrDefault("w", 40)));
-        registry.put("enemy_basic", params -> new EnemyBullet((int) params.getOrDefault("x", 0), (int) params.getOrDefault("y", 0)));
+        // register defaults：速度/伤害与 Bullet / EnemyBullet 的字段一致
+        define("player_basic", new Definition(
+                params -> new Bullet((int) params.getOrDefault("x", 0), (int) params.getOrDefault("y", 0), (int) params.getOrDefault("w", 40)),
+                BulletStore.TYPE_PLAYER_BASIC, 0f, -Bullet.DEFAULT_SPEED, Bullet.DEFAULT_DAMAGE));
+        define("enemy_basic", new Definition(
+                params -> new EnemyBullet((int) params.getOrDefault("x", 0), (int) params.getOrDefault("y", 0)),
+                BulletStore.TYPE_ENEMY_BASIC, 0f, EnemyBullet.DEFAULT_SPEED, EnemyBullet.DEFAULT_DAMAGE));
 
-        // 新增：可指定速度向量的敌机子弹（用于环形散射）
-        registry.put("enemy_directional", params -> new DirectionalEnemyBullet(
+        // 新增：可指定速度向量的敌机子弹（用于环形散射）；只以对象形式存在，不进 BulletStore
+        register("enemy_directional", params -> new DirectionalEnemyBullet(
                 (int) params.getOrDefault("x", 0),
                 (int) params.getOrDefault("y", 0),
                 ((Number) params.getOrDefault("vx", 0.0)).doubleValue(),
@@ -32,15 +67,27 @@ public class ProjectileFactory {
         ));
     }
 
+    /**
+     * 只注册创建方法：新弹种只能以对象形式存在；覆盖内置弹种时同样改为对象形式，
+     * 之后 spawnXxx() 也经由该 Maker 创建，注册立即对游戏内发射生效
+     */
     public static void register(String type, Maker maker) {
-        registry.put(type, maker);
+        define(type, new Definition(maker, -1, 0f, 0f, 0));
+    }
+
+    public static void define(String type, Definition definition) {
+        registry.put(type, definition);
+    }
+
+    public static Definition getDefinition(String type) {
+        return registry.get(type);
     }
 
     public static IBullet create(String type, Map<String, Object> params) {
-        Maker m = registry.get(type);
-        if (m != null) return m.make(params);
+        Definition d = registry.get(type);
+        if (d != null) return d.maker.make(params);
         // fallback to enemy_basic
-        return registry.get("enemy_basic").make(params);
+        return registry.get("enemy_basic").maker.make(params);
     }
 
     // Backward-compatible helpers
@@ -67,4 +114,31 @@ public class ProjectileFactory {
         p.put("vy", vy);
         return create("enemy_directional", p);
     }
+
+    // ===== 按注册定义直接写入 BulletStore（内置定义下不创建对象、不走参数 Map） =====
+
+    /**
+     * 玩家子弹：生成在玩家飞机顶部中间。
+     * 定义为对象形式时改由 Maker 创建，再按其碰撞框位置与伤害写入 BulletStore（玩家子弹只存放在 BulletStore 中）；
+     * 此时移动方向沿用内置的向上速度。返回槽位下标
+     */
+    public static int spawnPlayerBullet(BulletStore store, int playerX, int playerY, int playerWidth) {
+        Definition d = registry.get("player_basic");
+        if (d.isStored()) {
+            int size = BulletStore.BULLET_SIZE;
+            return store.spawn(d.storeType, playerX + (playerWidth / 2) - (size / 2), playerY - size, d.vx, d.vy, d.damage, 0);
+        }
+        IBullet bullet = createPlayerBullet(playerX, playerY, playerWidth);
+        CollisionBox box = bullet.fillCollisionBox(new CollisionBox());
+        return store.spawn(BulletStore.TYPE_PLAYER_BASIC, box.left, box.top, 0f, -Bullet.DEFAULT_SPEED, bullet.getDamage(), 0);
+    }
+
+    /**
+     * 敌机普通子弹；定义为对象形式时返回 -1，调用方应改用 createEnemyBullet() 以对象形式发射
+     */
+    public static int spawnEnemyBullet(BulletStore store, int x, int y) {
+        Definition d = registry.get("enemy_basic");
+        if (!d.isStored()) return -1;
+        return store.spawn(d.storeType, x, y, d.vx, d.vy, d.damage, -1);
+    }
 }
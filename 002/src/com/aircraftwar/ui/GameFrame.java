@@ -1,6 +1,7 @@
 package com.aircraftwar.ui;
 
 import com.aircraftwar.factory.ProjectileFactory;
+import com.aircraftwar.util.ScoreUtil;
 
 import javax.swing.*;
 import java.awt.*;
@@ -38,11 +39,12 @@ public class GameFrame extends JFrame {
         // 居中显示
         setLocationRelativeTo(null);
 
-        // 窗口关闭时停止游戏
+        // 窗口关闭时停止游戏，并等待后台写完得分记录
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
                 gamePanel.stopGame();
+                ScoreUtil.shutdown();
             }
         });
     }
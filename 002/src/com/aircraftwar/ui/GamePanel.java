@@ -1,13 +1,22 @@
 package com.aircraftwar.ui;
 
 import com.aircraftwar.entity.*;
+import com.aircraftwar.engine.FrameProfiler;
+import com.aircraftwar.engine.GameLoop;
+import com.aircraftwar.engine.GameRandom;
+import com.aircraftwar.engine.GameSimulation;
+import com.aircraftwar.engine.InputRecording;
+import com.aircraftwar.engine.ManualClock;
+import com.aircraftwar.engine.RenderList;
+import com.aircraftwar.util.AssetPreloader;
 import com.aircraftwar.util.AudioUtil;
 import com.aircraftwar.entity.ScoreRecord;
 import com.aircraftwar.util.ScoreUtil;
 import com.aircraftwar.event.EventBus;
-import com.aircraftwar.event.events.FireEvent;
-import com.aircraftwar.event.events.SoundEvent;
+import com.aircraftwar.event.events.GameOverEvent;
+import com.aircraftwar.event.events.WaveStartedEvent;
 import com.aircraftwar.util.GameConfig;
+import com.aircraftwar.util.ImageUtil;
 
 import java.awt.*;
 import java.awt.event.KeyAdapter;
@@ -16,10 +25,11 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.File;
 import java.util.List;
+import java.util.SplittableRandom;
 import javax.swing.JButton;
 import javax.swing.JTextField;
 import javax.swing.BorderFactory;
@@ -33,8 +43,9 @@ import javax.swing.JLabel;
 import javax.swing.SwingUtilities;
 /**
  * 游戏主面板（集成雷霆战机风格小队化+无尽逻辑）
+ * 使用 Canvas + BufferStrategy 主动渲染：模拟与渲染由 GameLoop 的两个线程分别驱动。
  */
-public class GamePanel extends JPanel implements Runnable {
+public class GamePanel extends Canvas {
     // 游戏状态
     public static final int GAME_START = 0;
     public static final int GAME_RUNNING = 1;
@@ -42,28 +53,34 @@ public class GamePanel extends JPanel implements Runnable {
     // 新增：开始界面 -> 游戏的转场
     public static final int GAME_TRANSITION = 3;
 
-    private int gameState = GAME_START;
+    // 由 EDT（按键/对话框）与游戏线程共同读写
+    private volatile int gameState = GAME_START;
 
-    // 游戏元素
-    private PlayerAircraft player;
-    private Wave currentWave;          // 当前波次（无尽递增）
-    private int currentWaveNumber = 1; // 当前波次编号
-    private List<Explosion> explosions;
+    // 模拟时钟：按 tick 推进（每 tick 一个固定步长）。升级弹窗打开期间不 tick，波次计时也就不会流逝；
+    // 时间轴只取决于 tick 数，录像回放才能与实际对局一致
+    private final ManualClock clock = new ManualClock();
+    // 游戏模拟核心（玩家/波次/爆炸/得分都在这里，本类只负责输入与渲染）
+    private final GameSimulation simulation = new GameSimulation(clock);
 
-    // 游戏参数
-    private int score = 0;
-
-    // 键盘控制
-    private boolean upPressed;
-    private boolean downPressed;
-    private boolean leftPressed;
-    private boolean rightPressed;
-    private boolean shootPressed;
+    // 键盘控制（EDT 写入，模拟线程每 tick 采样）
+    private volatile boolean upPressed;
+    private volatile boolean downPressed;
+    private volatile boolean leftPressed;
+    private volatile boolean rightPressed;
+    private volatile boolean shootPressed;
 
     // 线程控制
-    private Thread gameThread;
-    private boolean isRunning;
-    private static final int FPS = 70; // 帧率
+    private GameLoop gameLoop;
+    private static final int DEFAULT_REFRESH_RATE = 60; // 无法获取显示器刷新率时的渲染频率
+    private static final String REPLAY_DIR = "replays";
+    private static final int MAX_REPLAYS = 20;
+    // 录像写线程（守护线程，所有面板共用）：连续多局结束时依次写入，不会每局新建线程
+    private static final java.util.concurrent.ExecutorService REPLAY_WRITER =
+            java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "replay-writer");
+                t.setDaemon(true);
+                return t;
+            });
 
     // 初始化支持中文的字体（全局复用）
     private Font chineseFont;
@@ -73,6 +90,11 @@ public class GamePanel extends JPanel implements Runnable {
     private BufferedImage backgroundImage;
     // 开始界面背景
     private BufferedImage startBackgroundImage;
+    // 背景精灵编号（按面板尺寸预缩放）
+    private int backgroundSprite = -1;
+    private int startBackgroundSprite = -1;
+    private int backgroundSpriteWidth = -1;
+    private int backgroundSpriteHeight = -1;
 
     // 仅用于调试：打印一次真实面板尺寸
     private boolean printedPanelSize = false;
@@ -85,6 +107,33 @@ public class GamePanel extends JPanel implements Runnable {
     // ===== 受击反馈（屏幕震动/红屏） =====
     private static final int HIT_SHAKE_PX = 6;
 
+    // 性能调试面板（F3 切换）：分阶段耗时、帧时间曲线、实体/子弹/爆炸数量、分配速率
+    private volatile boolean showPerfOverlay = false;
+    private static final int PERF_GRAPH_SAMPLES = 240;
+    private final long[] perfGraphTicks = new long[PERF_GRAPH_SAMPLES];
+    private final long[] perfGraphFrames = new long[PERF_GRAPH_SAMPLES];
+    private final FrameProfiler.Summary perfSummary = new FrameProfiler.Summary();
+    // 面板每帧都画：字体/颜色预先建好，数字格式化到复用的字符缓冲再用 drawChars 绘制，不在渲染线程上分配。
+    // 半透明底板首次绘制时烘焙成图片：直接半透明 fillRect 在软件管线上每帧按面积分配临时栅格
+    private static final FrameProfiler.Phase[] PERF_PHASES = FrameProfiler.Phase.values();
+    private static final Font PERF_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Composite PERF_BG_ALPHA = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f);
+    private static final Color PERF_FRAME_PHASE_COLOR = new Color(255, 215, 0);
+    private static final Color PERF_TICK_GRAPH_COLOR = new Color(80, 220, 120);
+    private static final Color PERF_RENDER_GRAPH_COLOR = new Color(80, 200, 255);
+    private static final Color PERF_BUDGET_LINE_COLOR = new Color(255, 80, 80);
+    private static final String PERF_HEADER = String.format("%-10s%8s %8s %8s %8s  (ms, F3)", "", "p50", "p95", "p99", "max");
+    private Font perfInfoFont;
+    private BufferedImage perfBackground;
+    private final char[] perfText = new char[128];
+    private final char[] perfDigits = new char[20];
+    private int perfTextLength;
+
+    // 绘制快照：渲染线程 / EDT 被动重绘 / 离屏渲染各一份，互不共享
+    private final FrameSnapshot renderSnapshot = new FrameSnapshot();
+    private final FrameSnapshot paintSnapshot = new FrameSnapshot();
+    private final FrameSnapshot offscreenSnapshot = new FrameSnapshot();
+
     // ===== 难度系统（目前仅实现切换与UI展示，具体难度效果后续接入） =====
     private enum Difficulty {
         NEWBIE("新手", new Color(0, 220, 0)),
@@ -147,10 +196,20 @@ public class GamePanel extends JPanel implements Runnable {
     }
 
     public GamePanel() {
+        this(false);
+    }
+
+    /**
+     * offscreen 为 true 时只初始化字体与模拟：不预加载、不订阅事件、不放音乐、不启动游戏循环，
+     * 供 RenderBenchRunner 把画面绘制到 BufferedImage（见 renderOffscreen）。
+     */
+    GamePanel(boolean offscreen) {
         // 初始化面板
         // 统一屏幕尺寸到 GameConfig，避免硬编码 800/850
         setPreferredSize(new Dimension(GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT));
         setBackground(Color.BLACK);
+        // 主动渲染：忽略系统重绘消息，由渲染线程按刷新率绘制
+        setIgnoreRepaint(true);
 
         // ========== 核心修复1：初始化支持中文的字体 ==========
         // 优先使用微软雅黑， fallback到宋体，确保中文显示
@@ -161,10 +220,15 @@ public class GamePanel extends JPanel implements Runnable {
             chineseFont = new Font("SimSun", Font.PLAIN, 20);
             chineseBoldFont = new Font("SimSun", Font.BOLD, 25);
         }
+        perfInfoFont = chineseFont.deriveFont(Font.PLAIN, 13f);
 
-        // 加载背景图（开始界面/游戏内分别加载）
-        loadBackground();
-        loadStartBackground();
+        if (offscreen) {
+            setSize(GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT);
+            return;
+        }
+
+        // 后台并行预加载图片/音效/得分记录（开始界面显示进度，背景图加载完成后即显示）
+        AssetPreloader.getInstance().start();
 
         // 订阅音效事件，桥接到 AudioUtil（AudioUtil 已经委托给 SoundManager）
         EventBus.getDefault().subscribe(com.aircraftwar.event.events.SoundEvent.class, (se) -> {
@@ -205,29 +269,41 @@ public class GamePanel extends JPanel implements Runnable {
                     return;
                 }
 
+                // 弹窗期间 gameState 不是 RUNNING，模拟不 tick，时间也就不流逝
                 UpgradeDialog dlg = new UpgradeDialog(SwingUtilities.getWindowAncestor(this), p, um.getAppliedCount(p));
                 int choice = dlg.showDialog();
 
                 if (choice >= 0 && choice < com.aircraftwar.upgrade.UpgradeOption.values().length) {
                     com.aircraftwar.upgrade.UpgradeOption opt = com.aircraftwar.upgrade.UpgradeOption.values()[choice];
-                    um.applyUpgrade(p, opt);
+                    synchronized (gameLoop.getWorldLock()) {
+                        simulation.applyUpgrade(opt); // 经由模拟应用，录像里记下所在 tick
+                    }
                 }
 
                 gameState = prevState;
             });
         });
 
+        // 新波次开始：清理按键状态，避免玩家在波次切换瞬间保持按键
+        EventBus.getDefault().subscribe(WaveStartedEvent.class, (wse) -> {
+            resetInputStates();
+            System.out.println("[Wave] create wave=" + wse.getWaveNumber() + " panel=" + getWidth() + "x" + getHeight());
+            // 尝试恢复焦点，保证玩家能马上控制飞机
+            requestFocusInWindow();
+        });
+
+        // 游戏结束：切换到结算界面并弹出昵称输入
+        EventBus.getDefault().subscribe(GameOverEvent.class, this::onGameOver);
+
+        // 每局录制输入（种子 + 按键 + 升级选择），结束时保存到 replays/，可用 HeadlessRunner --replay 复现
+        simulation.setRecordingEnabled(true);
+
         // 初始化游戏元素
         // 原先这里会直接 initGame() 并进入 GAME_RUNNING。
         // 现在改为：先进入开始界面，等待玩家按 R 开始。
         gameState = GAME_START;
         // 开始界面播放菜单音乐
         try { AudioUtil.playMenuBGM(); } catch (Exception ignored) {}
-        score = 0;
-        currentWaveNumber = 1;
-        player = new PlayerAircraft(400 - 20, 500);
-        explosions = new ArrayList<>();
-        currentWave = null;
 
         // 添加键盘监听
         addKeyListener(new GameKeyListener());
@@ -241,8 +317,8 @@ public class GamePanel extends JPanel implements Runnable {
             }
         });
 
-        // 启动游戏线程
-        startGameThread();
+        // 启动游戏循环
+        startGameLoop();
     }
 
     // 初始化游戏
@@ -250,22 +326,9 @@ public class GamePanel extends JPanel implements Runnable {
         // 清除遗留的按键状态，确保新开局不会继承上局方向
         resetInputStates();
 
-        // 创建玩家飞机（居中底部）
-        player = new PlayerAircraft(400 - 20, 500);
-
-        // ✅ 同步难度到升级系统，并清理该玩家的升级计数（避免串局）
-        com.aircraftwar.upgrade.UpgradeManager.getInstance().setDifficulty(getDifficultyProfileKey());
-        com.aircraftwar.upgrade.UpgradeManager.getInstance().resetForPlayer(player);
-
-        // 初始化爆炸列表
-        explosions = new ArrayList<>();
-
-        // 重置游戏状态
-        score = 0;
+        // 重置模拟（玩家/得分/第一波），难度同步到升级系统
+        simulation.reset(getDifficultyProfileKey());
         gameState = GAME_RUNNING;
-        currentWaveNumber = 1;
-        // 初始化第一波（无尽型）
-        startNewWave();
 
         // 切换到局内背景音乐
         AudioUtil.playBGM();
@@ -274,76 +337,67 @@ public class GamePanel extends JPanel implements Runnable {
         requestFocusInWindow();
     }
 
-    // 启动新波次（无尽型，无限递增）
-    private void startNewWave() {
-        // 切换波次时清理按键状态，避免玩家在波次切换瞬间保持按键
-        resetInputStates();
-
-        // 绑定当前难度到波次（后续所有难度差异从这里开始传递）
-        currentWave = new Wave(currentWaveNumber, getDifficultyProfileKey());
-
-        // 调试：打印创建波次时的面板尺寸（如果为0，说明尺寸尚未布局完成）
-        System.out.println("[Wave] create wave=" + currentWaveNumber + " panel=" + getWidth() + "x" + getHeight());
+    // 启动游戏循环：固定 TICK_RATE 模拟，渲染跟随显示器刷新率
+    private void startGameLoop() {
+        gameLoop = new GameLoop(GameSimulation.TICK_RATE, detectRefreshRate(), this::tick, this::renderFrame);
+        gameLoop.start();
+    }
 
-        // 打印波次信息（控制台）
-        System.out.println("===== 无尽模式 - 第" + currentWaveNumber + "波 =====");
-        System.out.println("小队数量：" + currentWave.getSquads().size());
-        for (EnemySquad squad : currentWave.getSquads()) {
-            System.out.println("小队" + squad.getSquadId() + "：编队=" + squad.getFormation() + "，运动=" + squad.getMoveType());
+    // 显示器刷新率（144Hz 屏幕按 144 帧渲染）；未知时回退到 60
+    private static int detectRefreshRate() {
+        try {
+            if (GraphicsEnvironment.isHeadless()) return DEFAULT_REFRESH_RATE;
+            int rate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+            return rate > 0 ? rate : DEFAULT_REFRESH_RATE;
+        } catch (Exception e) {
+            return DEFAULT_REFRESH_RATE;
         }
-
-        // 尝试恢复焦点，保证玩家能马上控制飞机
-        requestFocusInWindow();
     }
 
-    // 检查波次切换（无尽型，波次无限递增）
-    private void checkWaveSwitch() {
-        if (currentWave.isWaveOver()) {
-            // 波次结束，启动下一波（无尽递增）
-            currentWaveNumber++;
-            startNewWave();
+    // 单个模拟 tick（模拟线程，持有 worldLock）
+    private void tick() {
+        if (gameState == GAME_RUNNING) {
+            updateGame(); // 更新游戏逻辑
+        } else if (gameState == GAME_TRANSITION) {
+            updateTransition();
         }
-    }
 
-    // 启动游戏线程
-    private void startGameThread() {
-        isRunning = true;
-        gameThread = new Thread(this);
-        gameThread.start();
+        // 处理事件总线中队列的事件（在模拟线程处理，避免异步订阅者并发问题）；
+        // 限定时间/数量预算，事件风暴时剩余事件顺延到下一 tick，保证帧时间有界
+        FrameProfiler profiler = simulation.getProfiler();
+        long start = profiler.begin();
+        EventBus.getDefault().drain(GameSimulation.EVENT_BUDGET_NANOS, GameSimulation.EVENT_BUDGET_COUNT);
+        profiler.end(FrameProfiler.Phase.EVENTS, start);
     }
 
-    // 游戏主循环
-    @Override
-    public void run() {
-        long lastTime = System.nanoTime();
-        double nsPerFrame = 1_000_000_000.0 / FPS;
-        double delta = 0;
-
-        while (isRunning) {
-            long now = System.nanoTime();
-            delta += (now - lastTime) / nsPerFrame;
-            lastTime = now;
-
-            while (delta >= 1) {
-                if (gameState == GAME_RUNNING) {
-                    updateGame(); // 更新游戏逻辑
-                } else if (gameState == GAME_TRANSITION) {
-                    updateTransition();
-                }
-                delta--;
-            }
+    // 渲染一帧到 BufferStrategy（渲染线程）
+    private void renderFrame(double alpha) {
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) return;
 
-            // 处理事件总线中队列的事件（在主线程/主循环处理，避免异步订阅者并发问题）
-            EventBus.getDefault().drain();
+        BufferStrategy bs = getBufferStrategy();
+        if (bs == null) {
+            createBufferStrategy(2);
+            return;
+        }
 
-            repaint(); // 重绘界面
+        do {
+            do {
+                Graphics g = bs.getDrawGraphics();
+                try {
+                    // 锁内只采集绘制快照，光栅化在锁外进行，模拟线程不会被慢帧阻塞
+                    synchronized (gameLoop.getWorldLock()) {
+                        captureFrame(renderSnapshot);
+                    }
+                    renderWithProfiling(g, renderSnapshot);
+                } finally {
+                    g.dispose();
+                }
+            } while (bs.contentsRestored());
+            bs.show();
+        } while (bs.contentsLost());
 
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+        Toolkit.getDefaultToolkit().sync();
     }
 
     // 转场更新：时间到后真正进入/重开游戏
@@ -376,140 +430,61 @@ public class GamePanel extends JPanel implements Runnable {
         requestFocusInWindow();
     }
 
-    // 更新游戏逻辑
+    // 更新游戏逻辑：采样输入后推进一个模拟 tick
     private void updateGame() {
         if (!printedPanelSize) {
             printedPanelSize = true;
             System.out.println("[GamePanel] size=" + getWidth() + "x" + getHeight() + " preferred=" + getPreferredSize());
         }
 
-        // currentWave/player 为空时直接跳过（开始界面/转场阶段不会走到这里，但加一层保险更稳）
-        if (player == null || currentWave == null) return;
-
-        // 控制玩家移动
-        controlPlayerMovement();
-
-
-        // 更新当前波次（小队移动+子弹)
-        currentWave.updateWave();
-
-        // 更新玩家状态（新增：处理无敌计时）
-        player.update();
-
-        // 更新玩家子弹
-        if (shootPressed) {
-            player.shoot();
-            EventBus.getDefault().post(new FireEvent(0, "basic", player.getX(), player.getY()));
-            EventBus.getDefault().post(new SoundEvent("shoot", 1.0f));
-        }
-        player.updateBullets();
-
-        // 碰撞检测
-        checkCollisions();
-
-        // 更新爆炸效果
-        updateExplosions();
-
-        // 检查波次切换（无尽型）
-        checkWaveSwitch();
-
-        // 检查游戏结束
-        checkGameOver();
+        simulation.setInput(upPressed, downPressed, leftPressed, rightPressed, shootPressed);
+        simulation.advanceTick();
     }
 
-    // 控制玩家移动
-    private void controlPlayerMovement() {
-        if (upPressed) player.moveUp();
-        if (downPressed) player.moveDown(getHeight());
-        if (leftPressed) player.moveLeft();
-        if (rightPressed) player.moveRight(getWidth());
-    }
-
-    // 更新爆炸效果
-    private void updateExplosions() {
-        Iterator<Explosion> iterator = explosions.iterator();
-        while (iterator.hasNext()) {
-            Explosion explosion = iterator.next();
-            if (explosion.isExpired()) {
-                iterator.remove();
-            }
-        }
-    }
-
-    // 碰撞检测（适配小队敌机）
-    private void checkCollisions() {
-        List<EnemyAircraft> allEnemies = currentWave.getAllEnemies();
-
-        // 1. 玩家子弹击中敌机
-        for (EnemyAircraft enemy : allEnemies) {
-            if (!enemy.isAlive()) continue;
-
-            Iterator<IBullet> bulletIterator = player.getBullets().iterator();
-            while (bulletIterator.hasNext()) {
-                IBullet bullet = bulletIterator.next();
-                if (bullet.isAlive() && bullet.getCollisionRect().intersects(enemy.getCollisionRect())) {
-                    // apply damage from bullet to enemy
-                    enemy.hit(bullet.getDamage());
-                    bullet.setAlive(false);
-                    bulletIterator.remove();
-                    // 添加爆炸效果
-                    explosions.add(new Explosion(enemy.getX(), enemy.getY()));
-                    // 发布爆炸音效事件和得分事件
-                    EventBus.getDefault().post(new SoundEvent("explode", 1.0f));
-                    int oldScore = score;
-                    score += 10 * currentWaveNumber; // 波次越高，得分越高（无尽难度奖励）
-                    EventBus.getDefault().post(new com.aircraftwar.event.events.ScoreChangedEvent(oldScore, score, player));
-                    break;
+    // 保存本局录像：在模拟线程取副本，写文件交给单个后台写线程（按局排队）；只保留最近 MAX_REPLAYS 个
+    private void saveReplay() {
+        InputRecording recording = simulation.getRecording();
+        if (recording == null) return;
+        final InputRecording snapshot = recording.snapshot();
+        REPLAY_WRITER.execute(() -> {
+            try {
+                File dir = new File(ScoreUtil.getDataDir(), REPLAY_DIR);
+                // 文件名精确到毫秒，同一毫秒内重名时追加序号
+                String stamp = new java.text.SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new java.util.Date());
+                File file = new File(dir, "replay-" + stamp + ".awr");
+                for (int n = 1; file.exists(); n++) {
+                    file = new File(dir, "replay-" + stamp + "-" + n + ".awr");
                 }
-            }
-        }
-
-        // 2. 敌机子弹击中玩家
-        for (EnemyAircraft enemy : allEnemies) {
-            if (!enemy.isAlive()) continue;
-
-            Iterator<IBullet> enemyBulletIterator = enemy.getBullets().iterator();
-            while (enemyBulletIterator.hasNext()) {
-                IBullet eBullet = enemyBulletIterator.next();
-                if (eBullet.isAlive() && eBullet.getCollisionRect().intersects(player.getCollisionRect())) {
-                    // 玩家扣血：固定每次 1 点，避免出现“单次命中扣 2HP”
-                    player.hit(1);
-                    eBullet.setAlive(false);
-                    enemyBulletIterator.remove();
-                    // 添加爆炸效果
-                    explosions.add(new Explosion(player.getX(), player.getY()));
-                    EventBus.getDefault().post(new SoundEvent("explode", 1.0f));
-
-                    // 关键：受击后立刻无敌，本帧不再继续处理更多子弹/碰撞，防止“堆子弹秒杀”
-                    return;
+                snapshot.writeTo(file);
+                System.out.println("[GamePanel] 录像已保存：" + file.getPath() + "（" + snapshot.getTicks() + " tick，"
+                        + file.length() + " 字节）");
+
+                File[] old = dir.listFiles((d, name) -> name.startsWith("replay-") && name.endsWith(".awr"));
+                if (old != null && old.length > MAX_REPLAYS) {
+                    java.util.Arrays.sort(old); // 文件名带时间戳，字典序即时间序
+                    for (int i = 0; i < old.length - MAX_REPLAYS; i++) {
+                        if (!old[i].delete()) System.out.println("[GamePanel] 无法删除旧录像：" + old[i]);
+                    }
                 }
+            } catch (java.io.IOException e) {
+                System.out.println("[GamePanel] 录像保存失败：" + e.getMessage());
             }
-        }
-
-        // 3. 敌机碰撞玩家
-        for (EnemyAircraft enemy : allEnemies) {
-            if (enemy.isAlive() && enemy.getCollisionRect().intersects(player.getCollisionRect())) {
-                player.hit(1); // 只扣1血，和敌机子弹一致
-                enemy.hit(1);
-                explosions.add(new Explosion(player.getX(), player.getY()));
-                EventBus.getDefault().post(new SoundEvent("explode", 1.0f));
-
-                // 同理：撞击后本帧也停止后续碰撞结算
-                return;
-            }
-        }
+        });
     }
 
-    // 检查游戏结束
-    // GamePanel.java 中 checkGameOver() 方法的修改
+    // 游戏结束（模拟线程 drain 事件时回调）
     // ========== 额外优化：确保JOptionPane输入框支持中文输入 ==========
-    private void checkGameOver() {
-        if (!player.isAlive() && gameState != GAME_OVER) {
+    private void onGameOver(GameOverEvent evt) {
+        if (gameState != GAME_OVER) {
             gameState = GAME_OVER;
             resetInputStates();
             // 游戏结束：切回菜单音乐（排行榜/结算界面）
             AudioUtil.playMenuBGM();
             AudioUtil.playGameOverSound();
+            saveReplay();
+
+            final int score = evt.getFinalScore();
+            final int currentWaveNumber = evt.getWaveNumber();
 
             SwingUtilities.invokeLater(() -> {
                 // 1. 初始化对话框
@@ -655,8 +630,6 @@ public class GamePanel extends JPanel implements Runnable {
 
                 // 按当前难度保存到对应排行榜
                 ScoreUtil.saveScore(getDifficultyKey(), nickname, score);
-
-                repaint();
             });
         }
     }
@@ -675,42 +648,181 @@ public class GamePanel extends JPanel implements Runnable {
         backgroundImage = com.aircraftwar.util.ImageUtil.loadImage("Background.png");
     }
 
-    // 开始界面背景
-    private void loadStartBackground() {
-        // 统一走 ImageUtil（文件系统优先，classpath 兜底）
-        startBackgroundImage = com.aircraftwar.util.ImageUtil.loadImage("Background2.png");
+    // 背景图由 AssetPreloader 加载：已进缓存就取用，尚未加载完时先用纯色背景
+    private void pickUpPreloadedBackgrounds() {
+        if (backgroundImage == null) backgroundImage = ImageUtil.getCachedImage("Background.png");
+        if (startBackgroundImage == null) startBackgroundImage = ImageUtil.getCachedImage("Background2.png");
+    }
+
+    // 背景精灵：按当前面板尺寸注册（尺寸变化时重新注册，同尺寸只缩放一次）
+    private int backgroundSprite(boolean startLike) {
+        int w = getWidth();
+        int h = getHeight();
+        if (w != backgroundSpriteWidth || h != backgroundSpriteHeight) {
+            backgroundSprite = ImageUtil.registerSprite("Background.png", w, h);
+            startBackgroundSprite = ImageUtil.registerSprite("Background2.png", w, h);
+            backgroundSpriteWidth = w;
+            backgroundSpriteHeight = h;
+        }
+        return startLike ? startBackgroundSprite : backgroundSprite;
     }
 
-    // 绘制游戏界面（新增小队/波次信息）
+    // 被动重绘（游戏循环未接管时的兜底）：直接用最新坐标绘制
     @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        if (gameLoop == null) return;
+        synchronized (gameLoop.getWorldLock()) {
+            captureFrame(paintSnapshot);
+        }
+        // EDT 上不计时、不画调试面板：RENDER 阶段与调试面板的统计缓冲只由渲染线程读写
+        render(g, paintSnapshot);
+    }
+
+    // 渲染线程专用：绘制一帧并记录绘制耗时；调试面板画在最上层，自身耗时不计入
+    private void renderWithProfiling(Graphics g, FrameSnapshot frame) {
+        FrameProfiler profiler = simulation.getProfiler();
+        long start = profiler.begin();
+        render(g, frame);
+        profiler.end(FrameProfiler.Phase.RENDER, start);
+        if (showPerfOverlay) {
+            drawPerfOverlay((Graphics2D) g, frame);
+        }
+    }
+
+    // 采集一帧绘制所需的全部世界状态（调用方持有 worldLock）：实体写成绘制指令，HUD 只取数值
+    private void captureFrame(FrameSnapshot frame) {
+        RenderList list = frame.world;
+        list.clear();
+        frame.gameState = gameState;
+
+        PlayerAircraft player = simulation.getPlayer();
+        Wave currentWave = simulation.getCurrentWave();
+        List<Explosion> explosions = simulation.getExplosions();
+        frame.score = simulation.getScore();
+        frame.waveNumber = simulation.getCurrentWaveNumber();
+        frame.hasPlayer = player != null;
+        frame.hp = player != null ? player.getHp() : 0;
+        frame.recentlyHit = player != null && player.isRecentlyHit();
+
+        // 受击震动/HP 抖动：纯视觉随机取 COSMETIC 流，不影响玩法流（回放结果与是否绘制无关）
+        frame.shakeX = frame.shakeY = frame.hpDx = frame.hpDy = 0;
+        if (frame.gameState == GAME_RUNNING && frame.recentlyHit) {
+            SplittableRandom cosmetic = simulation.getRandom().stream(GameRandom.Stream.COSMETIC);
+            frame.shakeX = cosmetic.nextInt(HIT_SHAKE_PX * 2 + 1) - HIT_SHAKE_PX;
+            frame.shakeY = cosmetic.nextInt(HIT_SHAKE_PX * 2 + 1) - HIT_SHAKE_PX;
+            frame.hpDx = cosmetic.nextInt(5) - 2;
+            frame.hpDy = cosmetic.nextInt(5) - 2;
+        }
+
+        frame.enemyCount = 0;
+        frame.bulletCount = 0;
+        frame.explosionCount = explosions.size();
+        if (frame.gameState != GAME_RUNNING || player == null || currentWave == null) return;
+
+        // 绘制顺序：玩家（含子弹）→ 小队敌机 → 独立敌人 → 敌方弹幕 → 爆炸
+        player.capture(list);
+        List<EnemySquad> squads = currentWave.getSquads();
+        for (int i = 0; i < squads.size(); i++) {
+            EnemySquad squad = squads.get(i);
+            if (!squad.isSpawned()) continue;
+            List<EnemyAircraft> enemies = squad.getEnemies();
+            for (int j = 0; j < enemies.size(); j++) {
+                enemies.get(j).capture(list);
+            }
+            frame.enemyCount += enemies.size();
+        }
+        // Bee 已在 Wave.getAllEnemies() 中参与碰撞，这里只负责渲染
+        List<BeeAircraft> bees = currentWave.getIndependentBees();
+        for (int i = 0; i < bees.size(); i++) {
+            BeeAircraft bee = bees.get(i);
+            if (bee != null) {
+                bee.capture(list);
+                frame.enemyCount++;
+            }
+        }
+        // 本波敌方子弹（统一在波次弹幕池里，敌机死亡后仍继续飞行）
+        currentWave.captureProjectiles(list);
+        for (int i = 0; i < explosions.size(); i++) {
+            explosions.get(i).capture(list);
+        }
+
+        frame.bulletCount = player.getBulletStore().size() + currentWave.getEnemyProjectiles().size();
+    }
+
+    // 一帧的绘制快照：渲染线程与 EDT 各用一份，逐帧覆写复用
+    private static final class FrameSnapshot {
+        final RenderList world = new RenderList();
+        int gameState;
+        boolean hasPlayer;
+        boolean recentlyHit;
+        int hp;
+        int score;
+        int waveNumber;
+        int shakeX;
+        int shakeY;
+        int hpDx;
+        int hpDy;
+        int enemyCount;
+        int bulletCount;
+        int explosionCount;
+    }
+
+    // ===== 离屏渲染（供 RenderBenchRunner 无界面计时，面板需以 offscreen 模式创建） =====
+
+    GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    // 直接开局（不经过开始界面/转场，不播放音乐）
+    void startOffscreenGame(com.aircraftwar.entity.DifficultyProfile.DifficultyKey difficulty, long seed) {
+        simulation.reset(difficulty, seed);
+        gameState = GAME_RUNNING;
+    }
+
+    // 与 paint/renderFrame 相同的绘制路径，目标换成任意 Graphics2D（如 BufferedImage）；返回本帧的世界绘制指令数
+    int renderOffscreen(Graphics2D g) {
+        captureFrame(offscreenSnapshot);
+        render(g, offscreenSnapshot);
+        return offscreenSnapshot.world.size();
+    }
+
+    // 绘制游戏界面（新增小队/波次信息）：只读快照，不需要持有 worldLock
+    private void render(Graphics g, FrameSnapshot frame) {
         Graphics2D g2d = (Graphics2D) g;
 
+        int gameState = frame.gameState;
+        int score = frame.score;
+        int currentWaveNumber = frame.waveNumber;
+
+        // 先铺底色：震动平移后边缘不会残留上一帧
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+
         // ===== 受击反馈：屏幕轻微震动（只在游戏运行中） =====
-        int shakeX = 0;
-        int shakeY = 0;
-        if (gameState == GAME_RUNNING && player != null && player.isRecentlyHit()) {
-            shakeX = (int) (Math.random() * (HIT_SHAKE_PX * 2 + 1)) - HIT_SHAKE_PX;
-            shakeY = (int) (Math.random() * (HIT_SHAKE_PX * 2 + 1)) - HIT_SHAKE_PX;
+        // 偏移量在采集快照时已取好（见 captureFrame）
+        int shakeX = frame.shakeX;
+        int shakeY = frame.shakeY;
+        if (shakeX != 0 || shakeY != 0) {
             g2d.translate(shakeX, shakeY);
         }
 
-        if (!printedPanelSize) {
-            printedPanelSize = true;
-            Insets in = getInsets();
-            System.out.println("[GamePanel] size=" + getWidth() + "x" + getHeight() + " insets=" + in);
-        }
-
         // 开启文字抗锯齿，避免中文显示模糊
         g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        // 图形抗锯齿每帧设置一次（子弹/爆炸已改为预渲染精灵，不再逐个设置）
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         // 背景：开始界面/转场统一用 Background2
         boolean isStartLike = (gameState == GAME_START || gameState == GAME_TRANSITION);
+        pickUpPreloadedBackgrounds();
         BufferedImage bg = isStartLike ? startBackgroundImage : backgroundImage;
 
         if (bg != null) {
-            // 简单拉伸铺满整个面板：
-            g2d.drawImage(bg, 0, 0, getWidth(), getHeight(), null);
+            // 铺满整个面板：使用按面板尺寸预缩放的背景精灵，避免逐帧拉伸
+            ImageUtil.drawSprite(g2d, backgroundSprite(isStartLike), 0, 0);
         } else {
             // 图片加载失败，使用纯色背景作为兜底
             g2d.setColor(Color.BLACK);
@@ -729,8 +841,11 @@ public class GamePanel extends JPanel implements Runnable {
             Font menuFont = chineseBoldFont != null ? chineseBoldFont.deriveFont(Font.BOLD, 26f) : new Font("微软雅黑", Font.BOLD, 26);
             Font tipFont = chineseFont != null ? chineseFont.deriveFont(Font.PLAIN, 20f) : new Font("微软雅黑", Font.PLAIN, 20);
 
+            AssetPreloader preloader = AssetPreloader.getInstance();
+            boolean loading = !preloader.isDone();
+
             String title = "飞机大战";
-            String line1 = "R 开始游戏";
+            String line1 = loading ? "资源加载中…" : "R 开始游戏";
             String line2 = "T 游戏难度：" + currentDifficulty.getDisplayName();
             String line3 = "Y 游戏介绍";
             String bottom = "WASD 控制飞机移动，空格发射子弹";
@@ -751,7 +866,9 @@ public class GamePanel extends JPanel implements Runnable {
 
             // 1) R 的闪烁高亮（只在开始界面/转场前半段显示更明显）
             boolean blinkOn = (System.currentTimeMillis() / 380) % 2 == 0;
-            if (gameState == GAME_START && blinkOn) {
+            if (loading) {
+                g2d.setColor(Color.LIGHT_GRAY);
+            } else if (gameState == GAME_START && blinkOn) {
                 g2d.setColor(new Color(255, 215, 0));
             } else {
                 g2d.setColor(Color.WHITE);
@@ -777,6 +894,21 @@ public class GamePanel extends JPanel implements Runnable {
             g2d.setColor(new Color(255, 255, 255, 220));
             g2d.drawString(bottom, bottomX, bottomY);
 
+            // 预加载进度条（加载完成后不再显示）
+            if (loading) {
+                int barW = 320;
+                int barH = 10;
+                int barX = (getWidth() - barW) / 2;
+                int barY = bottomY - 50;
+                g2d.setColor(new Color(255, 255, 255, 80));
+                g2d.fillRect(barX, barY, barW, barH);
+                g2d.setColor(new Color(255, 215, 0));
+                g2d.fillRect(barX, barY, Math.round(barW * preloader.getProgress()), barH);
+                String progress = preloader.getCompleted() + " / " + preloader.getTotal();
+                g2d.setColor(Color.WHITE);
+                g2d.drawString(progress, (getWidth() - fmTip.stringWidth(progress)) / 2, barY - 8);
+            }
+
             // 2) 转场覆盖层：淡出开始界面（黑色蒙版 alpha 从 0->1）
             if (gameState == GAME_TRANSITION) {
                 long now = System.currentTimeMillis();
@@ -796,32 +928,8 @@ public class GamePanel extends JPanel implements Runnable {
         }
 
         if (gameState == GAME_RUNNING) {
-            // 绘制玩家
-            player.draw(g);
-
-            // 绘制当前波所有小队的敌机
-            List<EnemySquad> squads = currentWave.getSquads();
-            for (EnemySquad squad : squads) {
-                if (squad.isSpawned()) {
-                    for (EnemyAircraft enemy : squad.getEnemies()) {
-                        enemy.draw(g);
-                    }
-                }
-            }
-
-            // 绘制独立敌人（Bee 等不属于小队的敌人）
-            // 注意：Bee 已在 Wave.getAllEnemies() 中参与碰撞，这里只负责渲染
-            for (BeeAircraft bee : currentWave.getIndependentBees()) {
-                if (bee != null) {
-                    // Bee.draw() 已实现：机体只在存活时绘制，但子弹不依赖存活
-                    bee.draw(g);
-                }
-            }
-
-            // 绘制爆炸效果
-            for (Explosion explosion : explosions) {
-                explosion.draw(g);
-            }
+            // 玩家、敌机、子弹、爆炸：回放采集好的绘制指令
+            frame.world.draw(g2d);
 
             // 绘制游戏信息（雷霆战机风格UI）
 
@@ -851,19 +959,17 @@ public class GamePanel extends JPanel implements Runnable {
             g.setFont(hpFont);
 
             // 受击：HP 文字短暂变红+抖动
-            int hpDx = 0;
-            int hpDy = 0;
-            if (player != null && player.isRecentlyHit()) {
+            if (frame.recentlyHit) {
                 g.setColor(new Color(255, 90, 90));
-                hpDx = (int) (Math.random() * 5) - 2;
-                hpDy = (int) (Math.random() * 5) - 2;
             } else {
                 g.setColor(Color.WHITE);
             }
-            g.drawString("HP: " + player.getHp(), getWidth() - 80 + hpDx, 30 + hpDy);
+            if (frame.hasPlayer) {
+                g.drawString("HP: " + frame.hp, getWidth() - 80 + frame.hpDx, 30 + frame.hpDy);
+            }
 
             // 受击红屏遮罩（短暂）
-            if (player != null && player.isRecentlyHit()) {
+            if (frame.recentlyHit) {
                 Composite old = g2d.getComposite();
                 g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.22f));
                 g2d.setColor(new Color(255, 0, 0));
@@ -962,6 +1068,133 @@ public class GamePanel extends JPanel implements Runnable {
         }
     }
 
+    // 性能调试面板（左下角）：各阶段 p50/p95/p99/max、tick/绘制耗时曲线、数量统计、分配速率
+    private void drawPerfOverlay(Graphics2D g2d, FrameSnapshot frame) {
+        FrameProfiler profiler = simulation.getProfiler();
+        FrameProfiler.Phase[] phases = PERF_PHASES;
+
+        int lineH = 16;
+        int graphH = 60;
+        int boxW = 420;
+        int boxH = 24 + lineH * (phases.length + 3) + graphH + 16;
+        int boxX = 10;
+        int boxY = getHeight() - boxH - 10;
+
+        if (perfBackground == null) {
+            perfBackground = ImageUtil.createCompatibleImage(boxW, boxH, Transparency.TRANSLUCENT);
+            Graphics2D bg = perfBackground.createGraphics();
+            try {
+                bg.setComposite(PERF_BG_ALPHA);
+                bg.setColor(Color.BLACK);
+                bg.fillRect(0, 0, boxW, boxH);
+            } finally {
+                bg.dispose();
+            }
+        }
+        g2d.drawImage(perfBackground, boxX, boxY, null);
+
+        g2d.setFont(PERF_FONT);
+        int x = boxX + 8;
+        int y = boxY + 18;
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(PERF_HEADER, x, y);
+        for (FrameProfiler.Phase phase : phases) {
+            y += lineH;
+            profiler.summarize(phase, perfSummary);
+            g2d.setColor(phase.isFrame() ? PERF_FRAME_PHASE_COLOR : Color.WHITE);
+            perfTextLength = 0;
+            appendPerfText(phase.name(), 10);
+            appendPerfMillis(perfSummary.p50);
+            appendPerfText(" ", 0);
+            appendPerfMillis(perfSummary.p95);
+            appendPerfText(" ", 0);
+            appendPerfMillis(perfSummary.p99);
+            appendPerfText(" ", 0);
+            appendPerfMillis(perfSummary.max);
+            g2d.drawChars(perfText, 0, perfTextLength, x, y);
+        }
+
+        // 帧时间曲线：绿色为 tick，青色为绘制；纵轴满格 = 2 个 tick 周期，红线为 1 个 tick 周期（超过即追不上）
+        int graphTop = y + 10;
+        int graphBottom = graphTop + graphH;
+        int tickCount = profiler.copyRecent(FrameProfiler.Phase.TICK, perfGraphTicks);
+        int frameCount = profiler.copyRecent(FrameProfiler.Phase.RENDER, perfGraphFrames);
+        double scale = graphH / (2.0 * GameSimulation.TICK_NANOS);
+        int graphX = x + PERF_GRAPH_SAMPLES; // 最新样本在右端
+        g2d.setColor(PERF_TICK_GRAPH_COLOR);
+        for (int i = 0; i < tickCount; i++) {
+            int h = (int) Math.min(graphH, perfGraphTicks[i] * scale);
+            int px = graphX - tickCount + i;
+            g2d.drawLine(px, graphBottom, px, graphBottom - h);
+        }
+        g2d.setColor(PERF_RENDER_GRAPH_COLOR);
+        int frameX = graphX + 10 + PERF_GRAPH_SAMPLES / 2;
+        for (int i = Math.max(0, frameCount - PERF_GRAPH_SAMPLES / 2); i < frameCount; i++) {
+            int h = (int) Math.min(graphH, perfGraphFrames[i] * scale);
+            int px = frameX - frameCount + i;
+            g2d.drawLine(px, graphBottom, px, graphBottom - h);
+        }
+        g2d.setColor(PERF_BUDGET_LINE_COLOR);
+        g2d.drawLine(x, graphBottom - graphH / 2, frameX, graphBottom - graphH / 2);
+        g2d.setColor(Color.GRAY);
+        g2d.drawString("tick", x, graphTop + 10);
+        g2d.drawString("render", graphX + 10, graphTop + 10);
+
+        // 数量统计（采集快照时取得）
+        y = graphBottom + lineH;
+        g2d.setFont(perfInfoFont);
+        g2d.setColor(Color.WHITE);
+        perfTextLength = 0;
+        appendPerfText("敌机 ", 0);
+        appendPerfNumber(frame.enemyCount, 0, 0);
+        appendPerfText("   子弹 ", 0);
+        appendPerfNumber(frame.bulletCount, 0, 0);
+        appendPerfText("   爆炸 ", 0);
+        appendPerfNumber(frame.explosionCount, 0, 0);
+        g2d.drawChars(perfText, 0, perfTextLength, x, y);
+
+        y += lineH;
+        long rate = profiler.sampleAllocationRate();
+        perfTextLength = 0;
+        appendPerfText("分配速率（模拟+渲染线程）: ", 0);
+        if (rate < 0) {
+            appendPerfText("—", 0);
+        } else {
+            appendPerfNumber(Math.round(rate * 10 / (1024.0 * 1024.0)), 1, 0);
+            appendPerfText(" MB/s", 0);
+        }
+        g2d.drawChars(perfText, 0, perfTextLength, x, y);
+    }
+
+    // 追加文字到 perfText，不足 width 时右侧补空格（相当于 %-Ns）
+    private void appendPerfText(String text, int width) {
+        int start = perfTextLength;
+        int n = Math.min(text.length(), perfText.length - perfTextLength);
+        text.getChars(0, n, perfText, perfTextLength);
+        perfTextLength += n;
+        while (perfTextLength - start < width && perfTextLength < perfText.length) perfText[perfTextLength++] = ' ';
+    }
+
+    // 纳秒换算成毫秒，保留两位小数（相当于 %8.2f）
+    private void appendPerfMillis(long nanos) {
+        appendPerfNumber(Math.round(nanos / 10_000.0), 2, 8);
+    }
+
+    // 追加定点数 scaled / 10^decimals，左侧补空格到 width
+    private void appendPerfNumber(long scaled, int decimals, int width) {
+        boolean negative = scaled < 0;
+        long v = negative ? -scaled : scaled;
+        int n = 0;
+        do {
+            if (n == decimals && decimals > 0) perfDigits[n++] = '.';
+            perfDigits[n++] = (char) ('0' + (v % 10));
+            v /= 10;
+        } while ((v > 0 || n <= decimals) && n < perfDigits.length - 1);
+        if (negative) perfDigits[n++] = '-';
+        for (int pad = width - n; pad > 0 && perfTextLength < perfText.length; pad--) perfText[perfTextLength++] = ' ';
+        while (n > 0 && perfTextLength < perfText.length) perfText[perfTextLength++] = perfDigits[--n];
+    }
+
     // 键盘监听器
     private class GameKeyListener extends KeyAdapter {
         @Override
@@ -990,7 +1223,8 @@ public class GamePanel extends JPanel implements Runnable {
                     break;
                 case KeyEvent.VK_R:
                     // 开始界面：按 R 进入转场；结束界面：按 R 重新开始（也走转场）
-                    if (gameState == GAME_START || gameState == GAME_OVER) {
+                    // 资源预加载完成前不开局，避免第一波边玩边加载
+                    if ((gameState == GAME_START || gameState == GAME_OVER) && AssetPreloader.getInstance().isDone()) {
                         startTransitionToGame();
                     }
                     break;
@@ -1009,7 +1243,6 @@ public class GamePanel extends JPanel implements Runnable {
                                 currentDifficulty = Difficulty.NEWBIE;
                                 break;
                         }
-                        repaint();
                     }
                     break;
                 case KeyEvent.VK_Y:
@@ -1022,9 +1255,12 @@ public class GamePanel extends JPanel implements Runnable {
                         dlg.setVisible(true);
                         // 关闭后回到开始界面，确保能继续接收按键
                         requestFocusInWindow();
-                        repaint();
                     }
                     break;
+                case KeyEvent.VK_F3:
+                    // 任意界面：切换性能调试面板
+                    showPerfOverlay = !showPerfOverlay;
+                    break;
                 case KeyEvent.VK_Q:
 
                     // 游戏结束界面：返回开始界面
@@ -1033,7 +1269,6 @@ public class GamePanel extends JPanel implements Runnable {
                         gameState = GAME_START;
                         // 回到开始界面：菜单音乐
                         try { AudioUtil.playMenuBGM(); } catch (Exception ignored) {}
-                        repaint();
                     }
                     break;
             }
@@ -1069,14 +1304,9 @@ public class GamePanel extends JPanel implements Runnable {
 
     // 停止游戏
     public void stopGame() {
-        isRunning = false;
         AudioUtil.stopBGM();
-        try {
-            if (gameThread != null) {
-                gameThread.join();
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        if (gameLoop != null) {
+            gameLoop.stop();
         }
     }
 }
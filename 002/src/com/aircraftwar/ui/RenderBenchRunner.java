@@ -0,0 +1,170 @@
+package com.aircraftwar.ui;
+
+import com.aircraftwar.engine.GameSimulation;
+import com.aircraftwar.engine.Interpolation;
+import com.aircraftwar.entity.BulletStore;
+import com.aircraftwar.entity.DifficultyProfile;
+import com.aircraftwar.util.AssetManifest;
+import com.aircraftwar.util.DrawUtil;
+import com.aircraftwar.util.GameConfig;
+import com.aircraftwar.util.ImageUtil;
+import com.aircraftwar.util.ScoreUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 无界面渲染计时入口：以 offscreen 模式创建 GamePanel，把整帧（背景、玩家、敌机、子弹、爆炸、HUD）
+ * 反复绘制到 BufferedImage，输出单帧耗时的 p50/p90/p99/max。不需要显示器或 GPU。
+ * 用法：RenderBenchRunner [子弹数...] [--frames=N] [--seed=N] [--png=文件]
+ * 每个子弹数单独开一局：开局后推进约 5 秒让第一波入场，再在屏幕内补足子弹到目标数量
+ * （模拟已有的子弹保留，不清空），测量期间世界状态不推进，每帧画的是同一画面。
+ * --png：把最后一个子弹数的画面保存下来，便于确认离屏绘制的内容。
+ * 画面没有任何世界绘制指令或整帧全黑（离屏绘制失效）时以退出码 1 结束。
+ * HUD 会读取最高分：得分目录指向临时目录，不打开、不压缩工作目录里的真实得分文件。
+ */
+public class RenderBenchRunner {
+    private static final long DEFAULT_SEED = 20240601L;
+    private static final int WARMUP_TICKS = GameSimulation.TICK_RATE * 5;
+    private static final int WARMUP_FRAMES = 300;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        // 必须在任何代码触发 ScoreUtil 类初始化之前设置
+        File scoreDir = Files.createTempDirectory("aircraftwar-render").toFile();
+        System.setProperty("aircraftwar.scoreDir", scoreDir.getPath());
+
+        int frames = 500;
+        long seed = DEFAULT_SEED;
+        String pngPath = null;
+        java.util.List<Integer> counts = new java.util.ArrayList<>();
+        for (String arg : args) {
+            String a = arg.trim();
+            if (a.startsWith("--frames=")) {
+                frames = Integer.parseInt(a.substring("--frames=".length()));
+            } else if (a.startsWith("--seed=")) {
+                seed = Long.parseLong(a.substring("--seed=".length()));
+            } else if (a.startsWith("--png=")) {
+                pngPath = a.substring("--png=".length());
+            } else {
+                counts.add(Integer.parseInt(a));
+            }
+        }
+        if (counts.isEmpty()) counts.addAll(Arrays.asList(10, 100, 1000, 10000));
+
+        // 与 AssetPreloader 相同的图片/精灵/预渲染准备（不加载音效），首帧不会混入解码耗时
+        for (AssetManifest.ImageEntry entry : AssetManifest.IMAGES) {
+            ImageUtil.loadImage(entry.fileName);
+            for (int[] size : entry.spriteSizes) {
+                ImageUtil.registerSprite(entry.fileName, size[0], size[1]);
+            }
+        }
+        DrawUtil.prewarm();
+
+        int width = GameConfig.SCREEN_WIDTH;
+        int height = GameConfig.SCREEN_HEIGHT;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        long[] samples = new long[frames];
+        boolean failed = false;
+
+        for (int target : counts) {
+            GamePanel panel = new GamePanel(true);
+            panel.startOffscreenGame(DifficultyProfile.DifficultyKey.IMPOSSIBLE, seed);
+            GameSimulation simulation = panel.getSimulation();
+            simulation.setInvulnerable(true);
+            for (int i = 0; i < WARMUP_TICKS; i++) {
+                simulation.advanceTick();
+            }
+
+            // 补足子弹：一半玩家子弹、一半本波敌方弹幕，均匀铺满屏幕
+            BulletStore playerBullets = simulation.getPlayer().getBulletStore();
+            BulletStore enemyBullets = simulation.getCurrentWave().getEnemyProjectiles().getStore();
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = playerBullets.size() + enemyBullets.size(); i < target; i++) {
+                float x = random.nextInt(width - BulletStore.BULLET_SIZE);
+                float y = random.nextInt(height - BulletStore.BULLET_SIZE);
+                if ((i & 1) == 0) {
+                    playerBullets.spawn(BulletStore.TYPE_PLAYER_BASIC, x, y, 0f, -8f, 1, 0);
+                } else {
+                    enemyBullets.spawn(BulletStore.TYPE_ENEMY_BASIC, x, y, 0f, 5f, 1, -1);
+                }
+            }
+            int bullets = playerBullets.size() + enemyBullets.size();
+
+            // 取 tick 中点的插值系数，走完整的插值路径
+            Interpolation.setAlpha(0.5);
+            int drawOps = 0;
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                drawOps = renderOnce(panel, image);
+            }
+            for (int i = 0; i < frames; i++) {
+                long start = System.nanoTime();
+                renderOnce(panel, image);
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+
+            int litPixels = countNonBlack(image);
+            System.out.printf("[RenderBenchRunner] bullets=%d drawOps=%d frames=%d p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms%n",
+                    bullets, drawOps, frames, percentile(samples, 50) / 1e6, percentile(samples, 90) / 1e6,
+                    percentile(samples, 99) / 1e6, samples[frames - 1] / 1e6);
+            if (drawOps == 0 || litPixels == 0) {
+                System.out.println("[RenderBenchRunner] 离屏画面为空：drawOps=" + drawOps + " 非黑像素=" + litPixels);
+                failed = true;
+            }
+        }
+
+        if (pngPath != null) {
+            try {
+                ImageIO.write(image, "png", new File(pngPath));
+                System.out.println("[RenderBenchRunner] 画面已保存：" + pngPath);
+            } catch (IOException e) {
+                System.out.println("[RenderBenchRunner] 画面保存失败：" + e.getMessage());
+            }
+        }
+        // 关闭得分日志后删掉临时得分目录
+        ScoreUtil.shutdown();
+        deleteTree(scoreDir);
+        if (failed) System.exit(1);
+    }
+
+    private static void deleteTree(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) deleteTree(f);
+                else f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static int renderOnce(GamePanel panel, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            return panel.renderOffscreen(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * percent / 100))];
+    }
+
+    private static int countNonBlack(BufferedImage image) {
+        int lit = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) & 0xFFFFFF) != 0) lit++;
+            }
+        }
+        return lit;
+    }
+}
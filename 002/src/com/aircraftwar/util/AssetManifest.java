@@ -0,0 +1,42 @@
+package com.aircraftwar.util;
+
+import com.aircraftwar.entity.EnemyAircraft;
+import com.aircraftwar.entity.PlayerAircraft;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 资源清单：开始界面阶段需要预加载的全部图片（及其游戏内精灵尺寸）、音效与其他启动期初始化。
+ * 新增资源时在这里登记，AssetPreloader 会并行加载；未登记的资源仍按原方式在首次使用时加载。
+ */
+public final class AssetManifest {
+
+    /** 一张图片及需要预缩放的精灵尺寸（{宽, 高}） */
+    public static final class ImageEntry {
+        public final String fileName;
+        public final List<int[]> spriteSizes;
+
+        ImageEntry(String fileName, int[]... spriteSizes) {
+            this.fileName = fileName;
+            this.spriteSizes = Collections.unmodifiableList(Arrays.asList(spriteSizes));
+        }
+    }
+
+    // 开始界面背景排在最前，最先可见
+    public static final List<ImageEntry> IMAGES = Collections.unmodifiableList(Arrays.asList(
+            new ImageEntry("Background2.png", new int[]{GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT}),
+            new ImageEntry("Background.png", new int[]{GameConfig.SCREEN_WIDTH, GameConfig.SCREEN_HEIGHT}),
+            new ImageEntry("PlayerPlane.png", new int[]{PlayerAircraft.PLAYER_WIDTH, PlayerAircraft.PLAYER_HEIGHT}),
+            new ImageEntry("Enemy1.png", new int[]{EnemyAircraft.ENEMY_WIDTH, EnemyAircraft.ENEMY_HEIGHT}),
+            new ImageEntry("BulletUpgrade.png"),
+            new ImageEntry("SpeedUpgrade.png"),
+            new ImageEntry("FiringRateUpgrade.png")
+    ));
+
+    // 短音效（BGM 为流式播放，无需预加载）
+    public static final List<String> SOUNDS = Collections.unmodifiableList(Arrays.asList(AudioUtil.SOUND_EFFECTS));
+
+    private AssetManifest() {}
+}
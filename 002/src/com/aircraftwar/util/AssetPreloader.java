@@ -0,0 +1,101 @@
+package com.aircraftwar.util;
+
+import com.aircraftwar.audio.SoundManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预加载：按 AssetManifest 在有界线程池里并行解码图片（并预缩放精灵）、解码音效、
+ * 打开得分日志、烘焙子弹/爆炸精灵。开始界面读取 getProgress() 显示进度，全部完成后才允许开局。
+ */
+public class AssetPreloader {
+    private static final AssetPreloader INSTANCE = new AssetPreloader();
+    private static final int MAX_THREADS = 4;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int total;
+    private volatile boolean started;
+    private volatile boolean done;
+    private long startNanos;
+
+    private AssetPreloader() {}
+
+    public static AssetPreloader getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始后台预加载（重复调用无效果），立即返回
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        startNanos = System.nanoTime();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (AssetManifest.ImageEntry entry : AssetManifest.IMAGES) {
+            tasks.add(() -> {
+                if (ImageUtil.loadImage(entry.fileName) == null) failed.incrementAndGet();
+                for (int[] size : entry.spriteSizes) {
+                    ImageUtil.registerSprite(entry.fileName, size[0], size[1]);
+                }
+            });
+        }
+        for (String sound : AssetManifest.SOUNDS) {
+            tasks.add(() -> {
+                if (!SoundManager.getInstance().loadSoundNow(ResourceUtil.soundFile(sound).getPath())) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        // 得分日志回放与排行榜索引（ScoreUtil 静态初始化）
+        tasks.add(ScoreUtil::getHighestScore);
+        // 子弹/爆炸预渲染
+        tasks.add(DrawUtil::prewarm);
+
+        total = tasks.size();
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-preload-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (Runnable task : tasks) {
+            pool.submit(() -> run(task));
+        }
+        pool.shutdown(); // 任务执行完后线程自行退出
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.out.println("[AssetPreloader] 预加载失败：" + e);
+        } finally {
+            if (completed.incrementAndGet() == total) {
+                done = true;
+                System.out.println("[AssetPreloader] 预加载完成：" + total + " 项，用时 "
+                        + (System.nanoTime() - startNanos) / 1_000_000L + "ms，失败 " + failed.get() + " 项");
+            }
+        }
+    }
+
+    public boolean isDone() { return done; }
+
+    /** 0~1 */
+    public float getProgress() {
+        int t = total;
+        return t == 0 ? (started ? 0f : 1f) : Math.min(1f, completed.get() / (float) t);
+    }
+
+    public int getCompleted() { return completed.get(); }
+    public int getTotal() { return total; }
+    public int getFailed() { return failed.get(); }
+}
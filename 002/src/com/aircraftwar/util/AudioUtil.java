@@ -21,6 +21,19 @@ public class AudioUtil {
     // 菜单/非局内界面音乐（开始界面/排行榜/介绍界面等）
     private static final String MENU_MUSIC = "Menu.wav";
 
+    // 全部短音效（AssetManifest 启动预加载用）
+    public static final String[] SOUND_EFFECTS = {SHOOT_SOUND, EXPLODE_SOUND, PLAYER_DEAD_SOUND, GAME_OVER_SOUND};
+
+    // 复音策略：射击最密（30ms 内只响一次、最多 3 声），爆炸其次，死亡/结束音效优先级最高不会被抢占
+    // （音效本身由 AssetPreloader 在开始界面预解码）
+    static {
+        SoundManager sm = SoundManager.getInstance();
+        sm.setSoundPolicy(ResourceUtil.soundFile(SHOOT_SOUND).getPath(), 3, 0, 30L);
+        sm.setSoundPolicy(ResourceUtil.soundFile(EXPLODE_SOUND).getPath(), 6, 1, 0L);
+        sm.setSoundPolicy(ResourceUtil.soundFile(PLAYER_DEAD_SOUND).getPath(), 1, 2, 0L);
+        sm.setSoundPolicy(ResourceUtil.soundFile(GAME_OVER_SOUND).getPath(), 1, 2, 0L);
+    }
+
     // 兼容旧 API：播放射击音效（玩家发射子弹）
     public static void playShootSound() {
         SoundManager.getInstance().playSound(ResourceUtil.soundFile(SHOOT_SOUND).getPath(), 1.0f);
@@ -2,6 +2,8 @@ package com.aircraftwar.util;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 图形绘制工具类（修复：调整drawExplosion参数，匹配调用）
@@ -33,28 +35,73 @@ public class DrawUtil {
         g2d.drawRect(x, y, width, height);
     }
 
-    // 绘制玩家子弹（黄色圆形）
+    // 绘制玩家子弹（黄色圆形）：预渲染精灵 blit
     public static void drawBullet(Graphics2D g2d, int x, int y, int size) {
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        Ellipse2D bullet = new Ellipse2D.Double(x, y, size, size);
-        g2d.setColor(Color.YELLOW);
-        g2d.fill(bullet);
-        g2d.setColor(Color.ORANGE);
-        g2d.setStroke(new BasicStroke(1));
-        g2d.draw(bullet);
+        BufferedImage sprite = bulletSprite(playerBulletSprites, size, Color.YELLOW, Color.ORANGE);
+        g2d.drawImage(sprite, x - SPRITE_PAD, y - SPRITE_PAD, null);
     }
 
-    // 绘制敌机子弹（红色圆形）
+    // 绘制敌机子弹（红色圆形）：预渲染精灵 blit
     public static void drawEnemyBullet(Graphics2D g2d, int x, int y, int size) {
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        BufferedImage sprite = bulletSprite(enemyBulletSprites, size, Color.RED, Color.BLACK);
+        g2d.drawImage(sprite, x - SPRITE_PAD, y - SPRITE_PAD, null);
+    }
 
-        Ellipse2D bullet = new Ellipse2D.Double(x, y, size, size);
-        g2d.setColor(Color.RED);
-        g2d.fill(bullet);
-        g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(1));
-        g2d.draw(bullet);
+    // 玩家无敌光圈：内圈实线 + 外圈半透明粗线（x/y/宽/高为内圈外接矩形）
+    private static final Color INVINCIBLE_RING_COLOR = new Color(255, 215, 0);
+    private static final BasicStroke INVINCIBLE_RING_INNER = new BasicStroke(4f);
+    private static final BasicStroke INVINCIBLE_RING_OUTER = new BasicStroke(10f);
+    private static final AlphaComposite INVINCIBLE_RING_INNER_ALPHA = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.75f);
+    private static final AlphaComposite INVINCIBLE_RING_OUTER_ALPHA = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f);
+
+    public static void drawInvincibleRing(Graphics2D g2d, int x, int y, int width, int height) {
+        Composite oldComp = g2d.getComposite();
+        Stroke oldStroke = g2d.getStroke();
+        Color oldColor = g2d.getColor();
+
+        g2d.setComposite(INVINCIBLE_RING_INNER_ALPHA);
+        g2d.setColor(INVINCIBLE_RING_COLOR);
+        g2d.setStroke(INVINCIBLE_RING_INNER);
+        g2d.drawOval(x, y, width, height);
+
+        g2d.setComposite(INVINCIBLE_RING_OUTER_ALPHA);
+        g2d.setStroke(INVINCIBLE_RING_OUTER);
+        g2d.drawOval(x - 3, y - 3, width + 6, height + 6);
+
+        g2d.setComposite(oldComp);
+        g2d.setStroke(oldStroke);
+        g2d.setColor(oldColor);
+    }
+
+    // ===== 预渲染精灵缓存（按尺寸下标；渲染线程使用，启动时可由 prewarm() 在预加载线程提前烘焙） =====
+    // 两个线程都会读写同一格，用 AtomicReferenceArray 保证烘焙完成的图片对另一线程可见
+    // 描边有 0.5px 落在圆外，四周各留 1px
+    private static final int SPRITE_PAD = 1;
+    private static final int MAX_CACHED_BULLET_SIZE = 64;
+    private static final AtomicReferenceArray<BufferedImage> playerBulletSprites = new AtomicReferenceArray<>(MAX_CACHED_BULLET_SIZE + 1);
+    private static final AtomicReferenceArray<BufferedImage> enemyBulletSprites = new AtomicReferenceArray<>(MAX_CACHED_BULLET_SIZE + 1);
+
+    private static BufferedImage bulletSprite(AtomicReferenceArray<BufferedImage> cache, int size, Color fill, Color outline) {
+        int s = Math.max(1, Math.min(MAX_CACHED_BULLET_SIZE, size));
+        BufferedImage sprite = cache.get(s);
+        if (sprite == null) {
+            sprite = ImageUtil.createCompatibleImage(s + SPRITE_PAD * 2, s + SPRITE_PAD * 2, Transparency.TRANSLUCENT);
+            Graphics2D g = sprite.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                Ellipse2D bullet = new Ellipse2D.Double(SPRITE_PAD, SPRITE_PAD, s, s);
+                g.setColor(fill);
+                g.fill(bullet);
+                g.setColor(outline);
+                g.setStroke(new BasicStroke(1));
+                g.draw(bullet);
+            } finally {
+                g.dispose();
+            }
+            // 两个线程同时烘焙同一尺寸时以先写入的为准，后到的丢弃自己那份
+            if (!cache.compareAndSet(s, null, sprite)) sprite = cache.get(s);
+        }
+        return sprite;
     }
 
     // ========== 核心修复：新增size参数，匹配调用的4个参数 ==========
@@ -66,6 +113,64 @@ public class DrawUtil {
      * @param size 爆炸尺寸（适配调用时传入的第四个参数）
      */
     public static void drawExplosion(Graphics2D g2d, int x, int y, int size) {
+        // 尺寸落在预渲染范围内时直接用最接近的帧
+        if (size >= EXPLOSION_MIN_SIZE && size <= EXPLOSION_MAX_SIZE) {
+            int frame = (int) Math.round((size - EXPLOSION_MIN_SIZE) * (EXPLOSION_FRAME_COUNT - 1)
+                    / (double) (EXPLOSION_MAX_SIZE - EXPLOSION_MIN_SIZE));
+            drawExplosionFrame(g2d, x, y, frame);
+            return;
+        }
+        drawExplosionShape(g2d, x, y, size);
+    }
+
+    // ===== 爆炸动画帧：尺寸从 EXPLOSION_MIN_SIZE 线性增大到 EXPLOSION_MAX_SIZE，首次使用时一次性烘焙 =====
+    public static final int EXPLOSION_FRAME_COUNT = 12;
+    public static final int EXPLOSION_MIN_SIZE = 20;
+    public static final int EXPLOSION_MAX_SIZE = 60;
+    private static volatile BufferedImage[] explosionFrames; // 最后写入，读到非 null 即可使用 explosionFrameSizes
+    private static int[] explosionFrameSizes;
+
+    /**
+     * 提前烘焙游戏内使用的子弹精灵与全部爆炸帧（启动预加载时调用，避免第一波现烘焙）
+     */
+    public static void prewarm() {
+        bulletSprite(playerBulletSprites, com.aircraftwar.entity.BulletStore.BULLET_SIZE, Color.YELLOW, Color.ORANGE);
+        bulletSprite(enemyBulletSprites, com.aircraftwar.entity.BulletStore.BULLET_SIZE, Color.RED, Color.BLACK);
+        if (explosionFrames == null) bakeExplosionFrames();
+    }
+
+    /**
+     * 按帧号绘制爆炸（x/y 为爆炸中心），帧号越界时取首/末帧
+     */
+    public static void drawExplosionFrame(Graphics2D g2d, int x, int y, int frame) {
+        if (explosionFrames == null) bakeExplosionFrames();
+        int f = Math.max(0, Math.min(EXPLOSION_FRAME_COUNT - 1, frame));
+        int size = explosionFrameSizes[f];
+        g2d.drawImage(explosionFrames[f], x - size / 2, y - size / 2, null);
+    }
+
+    private static void bakeExplosionFrames() {
+        BufferedImage[] frames = new BufferedImage[EXPLOSION_FRAME_COUNT];
+        int[] sizes = new int[EXPLOSION_FRAME_COUNT];
+        for (int f = 0; f < EXPLOSION_FRAME_COUNT; f++) {
+            int size = EXPLOSION_MIN_SIZE + (EXPLOSION_MAX_SIZE - EXPLOSION_MIN_SIZE) * f / (EXPLOSION_FRAME_COUNT - 1);
+            BufferedImage frame = ImageUtil.createCompatibleImage(size + 1, size + 1, Transparency.TRANSLUCENT);
+            Graphics2D g = frame.createGraphics();
+            try {
+                // 与逐帧绘制一致：中心位于 (size/2, size/2)
+                drawExplosionShape(g, size / 2, size / 2, size);
+            } finally {
+                g.dispose();
+            }
+            frames[f] = frame;
+            sizes[f] = size;
+        }
+        explosionFrameSizes = sizes;
+        explosionFrames = frames;
+    }
+
+    // 矢量绘制爆炸（烘焙帧与超出范围的尺寸使用）
+    private static void drawExplosionShape(Graphics2D g2d, int x, int y, int size) {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         // 爆炸动画（渐变圆形，尺寸由参数控制）
@@ -0,0 +1,144 @@
+package com.aircraftwar.util;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 原图缓存：并发读写，命中路径无锁、无日志；可选按内存上限做 LRU 淘汰。
+ * 统计（命中/未命中/解码耗时/淘汰）通过 getter 读取，不再逐次打印。
+ *
+ * 精灵图集保存的是缩放后的副本，原图被淘汰不影响已注册的精灵；再次需要原图时重新解码。
+ */
+final class ImageCache {
+
+    private static final class Entry {
+        final BufferedImage image;
+        final long bytes;
+        volatile long lastAccess; // 访问序号，越小越久未用
+
+        Entry(BufferedImage image, long lastAccess) {
+            this.image = image;
+            this.bytes = estimateBytes(image);
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 加载失败的文件名：不再反复尝试（也不再反复打印失败日志）
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private volatile long maxBytes; // <= 0 表示不限
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder decodes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 查缓存并记入命中/未命中；未命中返回 null，由调用方解码后 put
+     */
+    BufferedImage get(String name) {
+        Entry e = entries.get(name);
+        if (e != null) {
+            e.lastAccess = accessClock.incrementAndGet();
+            hits.increment();
+            return e.image;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 只查不计数（轮询用）
+     */
+    BufferedImage peek(String name) {
+        Entry e = entries.get(name);
+        return e == null ? null : e.image;
+    }
+
+    boolean isMissing(String name) {
+        return missing.contains(name);
+    }
+
+    /**
+     * 放入解码结果；并发解码同一张图时保留先放入的那份并返回它。image 为 null 时记为加载失败。
+     */
+    BufferedImage put(String name, BufferedImage image, long decodeTimeNanos) {
+        decodes.increment();
+        decodeNanos.add(decodeTimeNanos);
+        if (image == null) {
+            missing.add(name);
+            return null;
+        }
+        Entry fresh = new Entry(image, accessClock.incrementAndGet());
+        Entry prior = entries.putIfAbsent(name, fresh);
+        if (prior != null) return prior.image;
+        totalBytes.addAndGet(fresh.bytes);
+        evictIfNeeded(name);
+        return image;
+    }
+
+    // 超出上限时按最久未访问淘汰（只在未命中后执行，遍历开销可接受）；刚放入的那张不淘汰
+    private void evictIfNeeded(String justAdded) {
+        long limit = maxBytes;
+        if (limit <= 0 || totalBytes.get() <= limit) return;
+        synchronized (this) {
+            while (totalBytes.get() > limit) {
+                String oldestKey = null;
+                long oldestAccess = Long.MAX_VALUE;
+                for (Map.Entry<String, Entry> me : entries.entrySet()) {
+                    if (me.getKey().equals(justAdded)) continue;
+                    long access = me.getValue().lastAccess;
+                    if (access < oldestAccess) {
+                        oldestAccess = access;
+                        oldestKey = me.getKey();
+                    }
+                }
+                if (oldestKey == null) return;
+                Entry removed = entries.remove(oldestKey);
+                if (removed != null) {
+                    totalBytes.addAndGet(-removed.bytes);
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置原图缓存的内存上限（字节，按 宽×高×4 估算），<= 0 表示不限；立即按新上限淘汰
+     */
+    void setMaxBytes(long bytes) {
+        maxBytes = bytes;
+        evictIfNeeded(null);
+    }
+
+    long getMaxBytes() { return maxBytes; }
+
+    void clear() {
+        synchronized (this) {
+            for (String key : entries.keySet()) {
+                Entry removed = entries.remove(key);
+                if (removed != null) totalBytes.addAndGet(-removed.bytes);
+            }
+            missing.clear();
+        }
+    }
+
+    long getHits() { return hits.sum(); }
+    long getMisses() { return misses.sum(); }
+    long getDecodes() { return decodes.sum(); }
+    long getDecodeNanos() { return decodeNanos.sum(); }
+    long getEvictions() { return evictions.sum(); }
+    long getBytes() { return totalBytes.get(); }
+    int size() { return entries.size(); }
+
+    private static long estimateBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4L;
+    }
+}
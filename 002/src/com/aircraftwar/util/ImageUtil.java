@@ -6,14 +6,26 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 图片加载工具类（带详细调试日志，支持多路径加载）
  */
 public class ImageUtil {
-    private static Map<String, BufferedImage> imageCache = new HashMap<>();
+    // 启动时由 AssetPreloader 多线程并行加载，需线程安全；命中不打日志，统计见 getCache*()
+    private static final ImageCache imageCache = new ImageCache();
+
+    // ===== 精灵图集：加载时按游戏内尺寸预缩放，转成与屏幕兼容的格式（可走硬件加速 blit） =====
+    // 精灵编号 = 下标；数组整体替换（写少读多），绘制线程无锁读取
+    private static volatile BufferedImage[] sprites = new BufferedImage[0];
+    private static volatile int[] spriteWidths = new int[0];
+    private static volatile int[] spriteHeights = new int[0];
+    // 每架敌机构造都会查一次：读不加锁，只有新增精灵时才进 addSprite 的锁
+    private static final Map<String, Integer> spriteIds = new ConcurrentHashMap<>();
+    private static final LongAdder spriteHits = new LongAdder();
 
     /**
      * 加载图片（优先类路径 → 再文件路径，打印详细日志）
@@ -21,12 +33,13 @@ public class ImageUtil {
      * @return 加载后的图片，失败返回null
      */
     public static BufferedImage loadImage(String fileName) {
-        // 1. 先查缓存
-        if (imageCache.containsKey(fileName)) {
-            System.out.println("[ImageUtil] 缓存命中：" + fileName);
-            return imageCache.get(fileName);
+        // 1. 先查缓存（命中路径不打印日志）；之前已确认加载失败的不再重试
+        BufferedImage cached = imageCache.get(fileName);
+        if (cached != null || imageCache.isMissing(fileName)) {
+            return cached;
         }
 
+        long decodeStart = System.nanoTime();
         BufferedImage image = null;
 
         // 2. ✅ 优先「文件系统加载」（匹配当前项目资源放在工程根/images）
@@ -59,15 +72,50 @@ public class ImageUtil {
             }
         }
 
-        // 4. 缓存并返回
-        if (image != null) {
-            imageCache.put(fileName, image);
-        } else {
+        // 4. 缓存并返回（并发加载同一张图时以先放入的为准）
+        if (image == null) {
             System.out.println("[ImageUtil] ❌ 所有加载方式都失败：" + fileName);
         }
-        return image;
+        return imageCache.put(fileName, image, System.nanoTime() - decodeStart);
+    }
+
+    /**
+     * 只查缓存（不触发加载、不打印日志、不计入统计），尚未加载时返回 null
+     */
+    public static BufferedImage getCachedImage(String fileName) {
+        return imageCache.peek(fileName);
     }
 
+    /**
+     * 设置原图缓存的内存上限（字节，按 宽×高×4 估算），超出时淘汰最久未用的原图；<= 0 表示不限（默认）。
+     * 已注册的精灵不受影响。
+     */
+    public static void setMaxCacheBytes(long bytes) {
+        imageCache.setMaxBytes(bytes);
+    }
+
+    public static long getMaxCacheBytes() { return imageCache.getMaxBytes(); }
+
+    /**
+     * 清空原图缓存与失败记录（资源文件替换后重新加载用）
+     */
+    public static void clearCache() {
+        imageCache.clear();
+    }
+
+    // ===== 缓存统计 =====
+    public static long getCacheHits() { return imageCache.getHits(); }
+    public static long getCacheMisses() { return imageCache.getMisses(); }
+    /** 实际解码次数（含失败） */
+    public static long getDecodeCount() { return imageCache.getDecodes(); }
+    /** 累计解码耗时（纳秒） */
+    public static long getDecodeNanos() { return imageCache.getDecodeNanos(); }
+    public static long getCacheEvictions() { return imageCache.getEvictions(); }
+    public static long getCachedBytes() { return imageCache.getBytes(); }
+    public static int getCachedImageCount() { return imageCache.size(); }
+    /** registerSprite 直接命中已有精灵的次数 */
+    public static long getSpriteHits() { return spriteHits.sum(); }
+
     /**
      * 绘制图片（带降级日志）
      */
@@ -82,4 +130,105 @@ public class ImageUtil {
             g2d.drawRect(x, y, width, height);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 注册精灵：同一 (文件名, 宽, 高) 只会加载并缩放一次，返回精灵编号。
+     * 图片加载失败时仍返回编号，drawSprite 会降级绘制矩形。
+     */
+    public static int registerSprite(String fileName, int width, int height) {
+        String key = fileName + "@" + width + "x" + height;
+        Integer existing = spriteIds.get(key);
+        if (existing != null) {
+            spriteHits.increment();
+            return existing;
+        }
+
+        // 解码与缩放在锁外进行，预加载线程可以并行处理不同图片
+        BufferedImage source = loadImage(fileName);
+        BufferedImage scaled = (source == null) ? null : toCompatible(source, width, height);
+        return addSprite(key, scaled, width, height);
+    }
+
+    private static synchronized int addSprite(String key, BufferedImage scaled, int width, int height) {
+        Integer existing = spriteIds.get(key);
+        if (existing != null) return existing; // 并发注册同一精灵：保留先完成的
+
+        int id = sprites.length;
+        BufferedImage[] nextSprites = Arrays.copyOf(sprites, id + 1);
+        int[] nextWidths = Arrays.copyOf(spriteWidths, id + 1);
+        int[] nextHeights = Arrays.copyOf(spriteHeights, id + 1);
+        nextSprites[id] = scaled;
+        nextWidths[id] = width;
+        nextHeights[id] = height;
+        spriteWidths = nextWidths;
+        spriteHeights = nextHeights;
+        sprites = nextSprites;
+        spriteIds.put(key, id);
+        return id;
+    }
+
+    /**
+     * 按精灵编号绘制（1:1 blit，不再逐帧缩放）
+     */
+    public static void drawSprite(Graphics2D g2d, int spriteId, int x, int y) {
+        BufferedImage[] all = sprites;
+        BufferedImage sprite = (spriteId >= 0 && spriteId < all.length) ? all[spriteId] : null;
+        if (sprite != null) {
+            g2d.drawImage(sprite, x, y, null);
+            return;
+        }
+        // 降级：加载失败已在注册时打印日志，这里不再逐帧输出
+        int[] widths = spriteWidths;
+        int[] heights = spriteHeights;
+        int w = (spriteId >= 0 && spriteId < widths.length) ? widths[spriteId] : 0;
+        int h = (spriteId >= 0 && spriteId < heights.length) ? heights[spriteId] : 0;
+        g2d.setColor(Color.RED);
+        g2d.fillRect(x, y, w, h);
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(x, y, w, h);
+    }
+
+    public static BufferedImage getSprite(int spriteId) {
+        BufferedImage[] all = sprites;
+        return (spriteId >= 0 && spriteId < all.length) ? all[spriteId] : null;
+    }
+
+    /**
+     * 创建与屏幕兼容的空白图片（供预渲染精灵使用）；无界面环境下使用预乘 ARGB / RGB
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        int w = Math.max(1, width);
+        int h = Math.max(1, height);
+        if (!GraphicsEnvironment.isHeadless()) {
+            try {
+                GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                        .getDefaultScreenDevice().getDefaultConfiguration();
+                return gc.createCompatibleImage(w, h, transparency);
+            } catch (Exception e) {
+                System.out.println("[ImageUtil] ⚠️ 无法创建兼容图片，改用 ARGB：" + e.getMessage());
+            }
+        }
+        return new BufferedImage(w, h, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    // 一次性高质量缩放到目标尺寸，并转为屏幕兼容格式（无界面环境下使用预乘 ARGB）
+    private static BufferedImage toCompatible(BufferedImage source, int width, int height) {
+        int w = Math.max(1, width);
+        int h = Math.max(1, height);
+        int transparency = source.getColorModel().getTransparency();
+
+        BufferedImage target = createCompatibleImage(w, h, transparency);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
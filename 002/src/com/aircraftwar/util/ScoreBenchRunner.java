@@ -0,0 +1,85 @@
+package com.aircraftwar.util;
+
+import com.aircraftwar.engine.MicroBench;
+import com.aircraftwar.entity.ScoreRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+
+/**
+ * 排行榜查询与启动加载的吞吐与分配，按历史记录条数 1k/10k/100k 逐级加量：
+ * - getTopScores / getHighestScore：对局中/结算界面的查询，应与历史长度无关
+ * - rebuildLeaderboards：启动时由完整历史重建排行榜
+ * - openAndReplay：启动时打开得分日志并顺序读出全部记录
+ * 用法：ScoreBenchRunner [--warmup=毫秒] [--time=毫秒]
+ * 得分文件写到临时目录（在 ScoreUtil 类初始化之前设置 -Daircraftwar.scoreDir），不碰工作目录里的真实记录，
+ * 结束时删除。
+ */
+public class ScoreBenchRunner {
+    private static final String[] DIFFICULTIES = { "newbie", "veteran", "impossible" };
+    private static final int[] HISTORY_SIZES = { 1_000, 10_000, 100_000 };
+
+    public static void main(String[] args) throws Exception {
+        File dataDir = Files.createTempDirectory("aircraftwar-bench").toFile();
+        System.setProperty("aircraftwar.scoreDir", dataDir.getPath());
+        MicroBench.configure(args);
+        MicroBench.muteConsole();
+
+        // 单独一份完整日志给 openAndReplay（ScoreUtil 自己的日志会按难度压缩）
+        File replayFile = new File(dataDir, "replay.log");
+        SplittableRandom random = new SplittableRandom(MicroBench.SEED);
+        int saved = 0;
+        try {
+            for (int historySize : HISTORY_SIZES) {
+                ScoreJournal writer = new ScoreJournal(replayFile);
+                try {
+                    for (; saved < historySize; saved++) {
+                        String difficulty = DIFFICULTIES[saved % DIFFICULTIES.length];
+                        int score = random.nextInt(1_000_000);
+                        ScoreUtil.saveScore(difficulty, "p" + saved, score);
+                        writer.append(difficulty, new ScoreRecord("p" + saved, score));
+                    }
+                    writer.sync();
+                } finally {
+                    writer.close();
+                }
+                ScoreUtil.flush();
+
+                MicroBench.run("getTopScores history=" + historySize, 1,
+                        () -> ScoreUtil.getTopScores("veteran").size());
+                MicroBench.run("getHighestScore history=" + historySize, 1,
+                        () -> ScoreUtil.getHighestScore("impossible"));
+                MicroBench.run("rebuildLeaderboards history=" + historySize, 1, () -> {
+                    ScoreUtil.rebuildLeaderboards();
+                    return 0;
+                });
+                MicroBench.run("openAndReplay history=" + historySize, 1, () -> openAndReplay(replayFile));
+            }
+        } finally {
+            ScoreUtil.shutdown();
+            deleteTree(dataDir);
+        }
+    }
+
+    private static int openAndReplay(File file) throws IOException {
+        ScoreJournal journal = new ScoreJournal(file);
+        try {
+            return journal.replay().size();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static void deleteTree(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isDirectory()) deleteTree(f);
+                else f.delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,385 @@
+package com.aircraftwar.util;
+
+import com.aircraftwar.entity.ScoreRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 得分日志（只追加的二进制文件）：每局一条 64 字节定长记录，带 CRC32 校验。
+ * 追加只写入一条记录，耗时与历史条数无关；fsync 由后台线程按批次/时间间隔合并执行。
+ * 启动时 replay() 顺序读取：校验失败的记录记日志后跳过（记录定长，后面的记录仍然对齐），
+ * 只截断不足一条记录长度的残缺尾部（写入中途崩溃）；
+ * compact() 在后台线程把日志重写为每个难度保留的最高分记录，并原子替换原文件。
+ *
+ * 文件格式：8 字节头（魔数 "AWSJ" + 版本号）+ N 条记录。记录布局：
+ *   0  int   得分
+ *   4  long  写入时间（毫秒）
+ *   12 byte  难度长度 + 11 字节 ASCII 难度 key
+ *   24 byte  昵称长度 + 16 个 UTF-16 字符
+ *   57 保留 3 字节
+ *   60 int   CRC32（覆盖前 60 字节）
+ */
+public class ScoreJournal {
+    private static final int MAGIC = 0x4157534A; // "AWSJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 64;
+    private static final int PAYLOAD_SIZE = 60;
+    private static final int MAX_DIFFICULTY_BYTES = 11;
+    private static final int MAX_NICKNAME_CHARS = 16;
+
+    // fsync 批量策略：累计 SYNC_BATCH 条或距首条未同步记录超过 SYNC_INTERVAL_MS 即同步
+    private static final int SYNC_BATCH = 8;
+    private static final long SYNC_INTERVAL_MS = 1000L;
+
+    // 压缩：每个难度保留的记录数；日志条数超过保留量的 COMPACT_FACTOR 倍时触发
+    public static final int RETAIN_PER_DIFFICULTY = 1000;
+    private static final int COMPACT_FACTOR = 2;
+
+    /** 一条日志记录 */
+    public static final class Entry {
+        public final String difficultyKey;
+        public final ScoreRecord record;
+        public final long timeMillis;
+
+        public Entry(String difficultyKey, ScoreRecord record, long timeMillis) {
+            this.difficultyKey = difficultyKey;
+            this.record = record;
+            this.timeMillis = timeMillis;
+        }
+    }
+
+    private final File file;
+    private final Object lock = new Object();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long recordCount;
+
+    // 未同步状态（受 lock 保护）
+    private int unsynced;
+    private long firstUnsyncedAtMs;
+    private volatile boolean closed;
+    private volatile boolean compacting;
+    private final Thread syncThread;
+
+    public ScoreJournal(File file) throws IOException {
+        this.file = file;
+        this.channel = openChannel(file);
+        this.recordCount = Math.max(0L, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+
+        syncThread = new Thread(this::runSync, "score-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 顺序读取全部有效记录；校验失败的记录跳过（仍留在文件里，下次压缩时丢弃），
+     * 不足一条记录长度的残缺尾部会被截断，保证之后追加的记录仍按 RECORD_SIZE 对齐。
+     */
+    public List<Entry> replay() throws IOException {
+        synchronized (lock) {
+            List<Entry> entries = new ArrayList<>();
+            long size = channel.size();
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+            long pos = HEADER_SIZE;
+            int skipped = 0;
+            while (pos + RECORD_SIZE <= size) {
+                buf.clear();
+                readFully(channel, buf, pos);
+                buf.flip();
+                Entry entry = decode(buf);
+                if (entry != null) {
+                    entries.add(entry);
+                } else {
+                    skipped++;
+                }
+                pos += RECORD_SIZE;
+            }
+            if (skipped > 0) {
+                System.out.println("[ScoreJournal] 跳过 " + skipped + " 条校验失败的记录");
+            }
+            if (pos != size) {
+                System.out.println("[ScoreJournal] 日志尾部 " + (size - pos) + " 字节不足一条记录（可能是写入中途退出），已截断");
+                channel.truncate(pos);
+                channel.force(true);
+            }
+            recordCount = (pos - HEADER_SIZE) / RECORD_SIZE;
+            return entries;
+        }
+    }
+
+    /**
+     * 追加一条记录（只写入页缓存，fsync 由后台线程批量完成）
+     */
+    public void append(String difficultyKey, ScoreRecord record) throws IOException {
+        boolean syncNow;
+        synchronized (lock) {
+            if (closed) throw new IOException("score journal closed");
+            writeBuffer.clear();
+            encode(writeBuffer, crc, difficultyKey, record, System.currentTimeMillis());
+            writeBuffer.flip();
+            while (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer, channel.size());
+            }
+            recordCount++;
+            if (unsynced++ == 0) firstUnsyncedAtMs = System.currentTimeMillis();
+            syncNow = unsynced >= SYNC_BATCH;
+            if (syncNow) lock.notifyAll();
+        }
+    }
+
+    /**
+     * 立即把已追加的记录刷到磁盘。在锁内执行：压缩替换或 close() 不会在刷盘途中换掉/关闭 channel
+     */
+    public void sync() throws IOException {
+        synchronized (lock) {
+            if (unsynced == 0 || closed) return;
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /** 日志条数是否已明显超过保留量，值得压缩 */
+    public boolean needsCompaction(int retainedRecords) {
+        synchronized (lock) {
+            return recordCount > (long) Math.max(RETAIN_PER_DIFFICULTY, retainedRecords) * COMPACT_FACTOR;
+        }
+    }
+
+    /**
+     * 在后台线程压缩日志：每个难度只保留得分最高的 RETAIN_PER_DIFFICULTY 条。
+     * 压缩期间新追加的记录会在替换前补写到新文件，不会丢失。
+     */
+    public void compactInBackground() {
+        if (compacting || closed) return;
+        compacting = true;
+        Thread t = new Thread(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("[ScoreJournal] 压缩失败：" + e.getMessage());
+            } finally {
+                compacting = false;
+            }
+        }, "score-journal-compact");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void compact() throws IOException {
+        // 1. 快照：记下当前文件末尾，读取此前的全部记录
+        long snapshotEnd;
+        List<Entry> entries;
+        synchronized (lock) {
+            snapshotEnd = channel.size();
+            entries = replayRange(channel, HEADER_SIZE, snapshotEnd);
+        }
+
+        // 2. 锁外写临时文件：按难度保留最高分（同分保留较早的记录），再按写入时间排序
+        Map<String, List<Entry>> byDifficulty = new LinkedHashMap<>();
+        for (Entry e : entries) {
+            byDifficulty.computeIfAbsent(e.difficultyKey, k -> new ArrayList<>()).add(e);
+        }
+        List<Entry> kept = new ArrayList<>();
+        for (List<Entry> list : byDifficulty.values()) {
+            list.sort(Comparator.comparingInt((Entry e) -> e.record.getScore()).reversed()
+                    .thenComparingLong(e -> e.timeMillis));
+            kept.addAll(list.subList(0, Math.min(list.size(), RETAIN_PER_DIFFICULTY)));
+        }
+        kept.sort(Comparator.comparingLong(e -> e.timeMillis));
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            out.position(HEADER_SIZE);
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+            CRC32 checksum = new CRC32();
+            for (Entry e : kept) {
+                buf.clear();
+                encode(buf, checksum, e.difficultyKey, e.record, e.timeMillis);
+                buf.flip();
+                while (buf.hasRemaining()) out.write(buf);
+            }
+            out.force(true);
+        }
+
+        // 3. 锁内补写快照之后追加的记录，然后原子替换
+        synchronized (lock) {
+            if (closed) {
+                Files.deleteIfExists(tmp.toPath());
+                return;
+            }
+            long end = channel.size();
+            long keptCount = kept.size();
+            if (end > snapshotEnd) {
+                try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+                    long pos = out.size();
+                    channel.transferTo(snapshotEnd, end - snapshotEnd, out.position(pos));
+                    out.force(true);
+                }
+                keptCount += (end - snapshotEnd) / RECORD_SIZE;
+            }
+            channel.close();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = openChannel(file);
+            recordCount = keptCount;
+            unsynced = 0;
+            System.out.println("[ScoreJournal] 压缩完成：" + entries.size() + " -> " + kept.size() + " 条");
+        }
+    }
+
+    /** 刷盘并关闭（之后 append 会抛出 IOException） */
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+            try {
+                if (unsynced > 0) channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("[ScoreJournal] 关闭失败：" + e.getMessage());
+            }
+        }
+    }
+
+    // 后台 fsync：攒够一批或等待超时后同步
+    private void runSync() {
+        while (!closed) {
+            try {
+                synchronized (lock) {
+                    long now = System.currentTimeMillis();
+                    if (unsynced == 0) {
+                        lock.wait();
+                        continue;
+                    }
+                    long due = firstUnsyncedAtMs + SYNC_INTERVAL_MS;
+                    if (unsynced < SYNC_BATCH && now < due) {
+                        lock.wait(due - now);
+                        continue;
+                    }
+                }
+                sync();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.out.println("[ScoreJournal] 同步失败：" + e.getMessage());
+            }
+        }
+    }
+
+    // ===== 编解码 =====
+
+    private static void encode(ByteBuffer buf, CRC32 crc, String difficultyKey, ScoreRecord record, long timeMillis) {
+        int start = buf.position();
+        buf.putInt(record.getScore());
+        buf.putLong(timeMillis);
+
+        byte[] diff = (difficultyKey == null ? "" : difficultyKey).getBytes(StandardCharsets.US_ASCII);
+        int diffLen = Math.min(diff.length, MAX_DIFFICULTY_BYTES);
+        buf.put((byte) diffLen);
+        buf.put(diff, 0, diffLen);
+        for (int i = diffLen; i < MAX_DIFFICULTY_BYTES; i++) buf.put((byte) 0);
+
+        String nickname = record.getNickname() == null ? "" : record.getNickname();
+        int nickLen = Math.min(nickname.length(), MAX_NICKNAME_CHARS);
+        buf.put((byte) nickLen);
+        for (int i = 0; i < MAX_NICKNAME_CHARS; i++) {
+            buf.putChar(i < nickLen ? nickname.charAt(i) : '\0');
+        }
+        buf.put((byte) 0).put((byte) 0).put((byte) 0);
+
+        crc.reset();
+        for (int i = 0; i < PAYLOAD_SIZE; i++) crc.update(buf.get(start + i));
+        buf.putInt((int) crc.getValue());
+    }
+
+    // 校验失败返回 null
+    private static Entry decode(ByteBuffer buf) {
+        CRC32 check = new CRC32();
+        for (int i = 0; i < PAYLOAD_SIZE; i++) check.update(buf.get(i));
+        if ((int) check.getValue() != buf.getInt(PAYLOAD_SIZE)) return null;
+
+        int score = buf.getInt(0);
+        long time = buf.getLong(4);
+        int diffLen = buf.get(12);
+        int nickLen = buf.get(24);
+        if (diffLen < 0 || diffLen > MAX_DIFFICULTY_BYTES || nickLen < 0 || nickLen > MAX_NICKNAME_CHARS) return null;
+
+        byte[] diff = new byte[diffLen];
+        for (int i = 0; i < diffLen; i++) diff[i] = buf.get(13 + i);
+        char[] nick = new char[nickLen];
+        for (int i = 0; i < nickLen; i++) nick[i] = buf.getChar(25 + i * 2);
+
+        return new Entry(new String(diff, StandardCharsets.US_ASCII), new ScoreRecord(new String(nick), score), time);
+    }
+
+    private static List<Entry> replayRange(FileChannel ch, long from, long to) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+        for (long pos = from; pos + RECORD_SIZE <= to; pos += RECORD_SIZE) {
+            buf.clear();
+            readFully(ch, buf, pos);
+            buf.flip();
+            Entry entry = decode(buf);
+            if (entry != null) entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) break;
+        }
+    }
+
+    private static FileChannel openChannel(File file) throws IOException {
+        FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (ch.size() < HEADER_SIZE) {
+            ch.truncate(0);
+            writeHeader(ch);
+            ch.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(ch, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                ch.close();
+                throw new IOException("不是有效的得分日志：" + file.getAbsolutePath());
+            }
+        }
+        return ch;
+    }
+
+    private static void writeHeader(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        while (header.hasRemaining()) ch.write(header, header.position());
+    }
+}
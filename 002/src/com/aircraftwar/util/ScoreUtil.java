@@ -4,8 +4,12 @@ import com.aircraftwar.entity.ScoreRecord;
 
 import java.io.*;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -21,18 +25,82 @@ public class ScoreUtil {
     // 默认难度 key（与 GamePanel 难度枚举对应，未来可扩展）
     private static final String DEFAULT_DIFFICULTY_KEY = "newbie";
 
-    // 得分记录持久化文件（可选，重启游戏后数据不丢失）
+    // 数据目录（得分文件、录像）：默认工作目录，可用 -Daircraftwar.scoreDir 指定（测试时指向临时目录，不碰真实记录）
+    private static final File DATA_DIR = new File(System.getProperty("aircraftwar.scoreDir", "."));
+
+    // 旧持久化文件（整表序列化，仅用于一次性迁移 / 日志不可用时的兜底）
     private static final String SCORE_FILE = "scores.dat";
 
+    // 得分日志（只追加，每局写一条定长记录）
+    private static final String JOURNAL_FILE = "scores.log";
+    private static ScoreJournal journal;
+
+    // 后台写入：saveScore 只更新内存并入队，由单个写线程批量落盘（EDT 不做文件 I/O）
+    private static final class PendingWrite {
+        final String difficultyKey;
+        final ScoreRecord record;
+
+        PendingWrite(String difficultyKey, ScoreRecord record) {
+            this.difficultyKey = difficultyKey;
+            this.record = record;
+        }
+    }
+
+    private static final PendingWrite STOP = new PendingWrite(null, null);
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000L;
+    private static final BlockingQueue<PendingWrite> writeQueue = new LinkedBlockingQueue<>();
+    private static final AtomicLong enqueuedWrites = new AtomicLong();
+    private static final Object writtenLock = new Object();
+    private static long completedWrites; // 受 writtenLock 保护
+    private static volatile boolean shuttingDown;
+    private static Thread writer;
+
+    // 排行榜只展示前 5 名
+    private static final int TOP_K = 5;
+
+    /**
+     * 单个难度的排行榜快照（不可变）：前 K 名 + 最高分。
+     * 写入时整体替换，游戏线程 / EDT 读取无需加锁，查询为 O(1)。
+     */
+    private static final class Leaderboard {
+        static final Leaderboard EMPTY = new Leaderboard(Collections.emptyList());
+
+        final List<ScoreRecord> top; // 按得分降序，同分按先后顺序
+        final int highest;
+
+        Leaderboard(List<ScoreRecord> top) {
+            this.top = Collections.unmodifiableList(top);
+            this.highest = top.isEmpty() ? 0 : top.get(0).getScore();
+        }
+
+        // 插入一条记录，返回新快照（同分排在已有记录之后，与稳定排序一致）
+        Leaderboard with(ScoreRecord record) {
+            int pos = 0;
+            while (pos < top.size() && top.get(pos).getScore() >= record.getScore()) pos++;
+            if (pos >= TOP_K) return this;
+
+            List<ScoreRecord> next = new ArrayList<>(Math.min(TOP_K, top.size() + 1));
+            next.addAll(top.subList(0, pos));
+            next.add(record);
+            next.addAll(top.subList(pos, Math.min(top.size(), TOP_K - 1)));
+            return new Leaderboard(next);
+        }
+    }
+
+    // 难度 -> 排行榜快照
+    private static final java.util.Map<String, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+
     // 静态代码块：初始化时加载本地得分记录
     static {
-        loadScoresFromFile();
+        openJournal();
+        rebuildLeaderboards();
+        startWriter();
     }
 
     /**
      * 按难度保存得分
      */
-    public static void saveScore(String difficultyKey, String nickname, int score) {
+    public static synchronized void saveScore(String difficultyKey, String nickname, int score) {
         if (difficultyKey == null || difficultyKey.trim().isEmpty()) difficultyKey = DEFAULT_DIFFICULTY_KEY;
 
         // 1. 空值/非法字符处理（复用原逻辑）
@@ -52,10 +120,67 @@ public class ScoreUtil {
             if (nickname.isEmpty()) nickname = "匿名玩家";
         }
 
-        scoresByDifficulty.computeIfAbsent(difficultyKey, k -> new ArrayList<>()).add(new ScoreRecord(nickname, score));
+        ScoreRecord record = new ScoreRecord(nickname, score);
+        scoresByDifficulty.computeIfAbsent(difficultyKey, k -> new ArrayList<>()).add(record);
+        leaderboards.put(difficultyKey, leaderboards.getOrDefault(difficultyKey, Leaderboard.EMPTY).with(record));
         // 同时写入旧列表（便于兼容旧 UI/调用）
         allScores.add(new ScoreRecord(nickname, score));
-        saveScoresToFile();
+
+        synchronized (writtenLock) {
+            if (!shuttingDown) {
+                enqueuedWrites.incrementAndGet();
+                writeQueue.add(new PendingWrite(difficultyKey, record));
+                return;
+            }
+        }
+        // 已在关闭：写线程不再取队列，直接同步写入
+        writeAfterShutdown(new PendingWrite(difficultyKey, record));
+    }
+
+    /**
+     * 等待此前保存的得分全部落盘
+     */
+    public static void flush() {
+        long target = enqueuedWrites.get();
+        synchronized (writtenLock) {
+            while (completedWrites < target && writer.isAlive()) {
+                try {
+                    writtenLock.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 退出时调用：写完队列中的得分后关闭日志（可重复调用）
+     */
+    public static void shutdown() {
+        synchronized (writtenLock) {
+            if (shuttingDown) return;
+            shuttingDown = true;
+            writeQueue.add(STOP);
+        }
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.out.println("得分写入超时，部分记录可能未保存");
+        }
+        synchronized (ScoreUtil.class) {
+            if (journal != null) journal.close();
+        }
+    }
+
+    /**
+     * 本地数据目录（得分文件、录像等）：默认工作目录，可用 -Daircraftwar.scoreDir 指定
+     */
+    public static File getDataDir() {
+        return DATA_DIR;
     }
 
     /**
@@ -67,15 +192,11 @@ public class ScoreUtil {
 
     /**
      * 核心方法：获取前5名得分记录（按得分降序）
-     * @return 排序后的前5名得分记录列表
+     * @return 排序后的前5名得分记录列表（只读快照）
      */
     public static List<ScoreRecord> getTopScores(String difficultyKey) {
         if (difficultyKey == null || difficultyKey.trim().isEmpty()) difficultyKey = DEFAULT_DIFFICULTY_KEY;
-        List<ScoreRecord> list = scoresByDifficulty.getOrDefault(difficultyKey, new ArrayList<>());
-        return list.stream()
-                .sorted(Comparator.comparingInt(ScoreRecord::getScore).reversed())
-                .limit(5)
-                .collect(Collectors.toList());
+        return leaderboards.getOrDefault(difficultyKey, Leaderboard.EMPTY).top;
     }
 
     /**
@@ -90,10 +211,7 @@ public class ScoreUtil {
      */
     public static int getHighestScore(String difficultyKey) {
         if (difficultyKey == null || difficultyKey.trim().isEmpty()) difficultyKey = DEFAULT_DIFFICULTY_KEY;
-        return scoresByDifficulty.getOrDefault(difficultyKey, new ArrayList<>()).stream()
-                .mapToInt(ScoreRecord::getScore)
-                .max()
-                .orElse(0);
+        return leaderboards.getOrDefault(difficultyKey, Leaderboard.EMPTY).highest;
     }
 
     /**
@@ -103,11 +221,139 @@ public class ScoreUtil {
         return getHighestScore(DEFAULT_DIFFICULTY_KEY);
     }
 
+    // 由完整历史重建全部排行榜（启动时执行一次；包内可见供 ScoreBenchRunner 测量，与 saveScore 互斥）
+    static synchronized void rebuildLeaderboards() {
+        leaderboards.clear();
+        for (java.util.Map.Entry<String, List<ScoreRecord>> entry : scoresByDifficulty.entrySet()) {
+            Leaderboard board = Leaderboard.EMPTY;
+            if (entry.getValue() != null) {
+                for (ScoreRecord record : entry.getValue()) {
+                    if (record != null) board = board.with(record);
+                }
+            }
+            leaderboards.put(entry.getKey(), board);
+        }
+    }
+
+    /**
+     * 打开得分日志并回放历史记录；首次运行时把旧 scores.dat 迁移进日志。
+     * 日志无法打开时退回旧的整表序列化方式。
+     */
+    private static void openJournal() {
+        try {
+            journal = new ScoreJournal(new File(DATA_DIR, JOURNAL_FILE));
+            List<ScoreJournal.Entry> entries = journal.replay();
+            if (entries.isEmpty() && new File(DATA_DIR, SCORE_FILE).exists()) {
+                migrateLegacyFile();
+            } else {
+                scoresByDifficulty = new java.util.HashMap<>();
+                allScores = new ArrayList<>();
+                for (ScoreJournal.Entry entry : entries) {
+                    scoresByDifficulty.computeIfAbsent(entry.difficultyKey, k -> new ArrayList<>()).add(entry.record);
+                    allScores.add(entry.record);
+                }
+            }
+            int retained = 0;
+            for (List<ScoreRecord> list : scoresByDifficulty.values()) {
+                retained += Math.min(list.size(), ScoreJournal.RETAIN_PER_DIFFICULTY);
+            }
+            if (journal.needsCompaction(retained)) {
+                journal.compactInBackground();
+            }
+        } catch (IOException e) {
+            System.out.println("打开得分日志失败，改用 " + SCORE_FILE + "：" + e.getMessage());
+            if (journal != null) journal.close();
+            journal = null;
+            loadScoresFromFile();
+        }
+    }
+
+    // 旧文件 -> 日志：逐条追加并刷盘后，把旧文件改名为 .bak
+    private static void migrateLegacyFile() throws IOException {
+        loadScoresFromFile();
+        for (java.util.Map.Entry<String, List<ScoreRecord>> entry : scoresByDifficulty.entrySet()) {
+            if (entry.getValue() == null) continue;
+            for (ScoreRecord record : entry.getValue()) {
+                if (record != null) journal.append(entry.getKey(), record);
+            }
+        }
+        journal.sync();
+        File legacy = new File(DATA_DIR, SCORE_FILE);
+        if (!legacy.renameTo(new File(DATA_DIR, SCORE_FILE + ".bak"))) {
+            System.out.println("旧得分文件改名失败：" + legacy.getAbsolutePath());
+        }
+    }
+
+    private static void startWriter() {
+        writer = new Thread(ScoreUtil::runWriter, "score-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // 兜底：未经 GameFrame 正常关闭（如 Ctrl+C）时也尽量写完
+        Runtime.getRuntime().addShutdownHook(new Thread(ScoreUtil::shutdown, "score-writer-shutdown"));
+    }
+
+    // 写线程：取到一条后把队列里积压的一并取出，整批写入、一次刷盘
+    private static void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            writeQueue.drainTo(batch);
+            stop = batch.remove(STOP);
+            if (!batch.isEmpty()) writeBatch(batch);
+            synchronized (writtenLock) {
+                completedWrites += batch.size();
+                writtenLock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    // 追加到日志并刷盘；日志不可用时整表写回旧文件（一批只写一次）
+    private static void writeBatch(List<PendingWrite> batch) {
+        if (journal == null) {
+            saveScoresToFile();
+            return;
+        }
+        try {
+            for (PendingWrite write : batch) {
+                journal.append(write.difficultyKey, write.record);
+            }
+            journal.sync();
+        } catch (IOException e) {
+            System.out.println("保存得分记录失败：" + e.getMessage());
+        }
+    }
+
+    // 关闭期间/之后的保存（调用方持有 ScoreUtil.class）：shutdown() 可能已关闭日志，
+    // 此时临时重新打开日志追加这一条并刷盘，而不是写入已关闭的 channel 后丢失
+    private static void writeAfterShutdown(PendingWrite write) {
+        if (journal == null) {
+            saveScoresToFile();
+            return;
+        }
+        try {
+            ScoreJournal target = journal.isClosed() ? new ScoreJournal(journal.getFile()) : journal;
+            try {
+                target.append(write.difficultyKey, write.record);
+                target.sync();
+            } finally {
+                if (target != journal) target.close();
+            }
+        } catch (IOException e) {
+            System.out.println("保存得分记录失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 从本地文件加载得分记录（持久化）
      */
     private static void loadScoresFromFile() {
-        File file = new File(SCORE_FILE);
+        File file = new File(DATA_DIR, SCORE_FILE);
         if (!file.exists()) {
             scoresByDifficulty = new java.util.HashMap<>();
             allScores = new ArrayList<>();
@@ -154,9 +400,16 @@ public class ScoreUtil {
      * 将得分记录保存到本地文件（持久化）
      */
     private static void saveScoresToFile() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SCORE_FILE))) {
+        // 写线程调用：先在锁内复制一份，序列化过程不阻塞 saveScore
+        java.util.Map<String, List<ScoreRecord>> snapshot = new java.util.HashMap<>();
+        synchronized (ScoreUtil.class) {
+            for (java.util.Map.Entry<String, List<ScoreRecord>> entry : scoresByDifficulty.entrySet()) {
+                snapshot.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(new File(DATA_DIR, SCORE_FILE)))) {
             // 持久化新格式
-            oos.writeObject(scoresByDifficulty);
+            oos.writeObject(snapshot);
         } catch (IOException e) {
             System.out.println("保存得分记录失败：" + e.getMessage());
         }